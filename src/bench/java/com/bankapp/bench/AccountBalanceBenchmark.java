@@ -0,0 +1,74 @@
+package com.bankapp.bench;
+
+import com.bankapp.repository.ClientRepository;
+import com.bankapp.service.AccountService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пополнение со списанием той же суммы из 4 потоков: на один «горячий» счёт и вразброс по 1024 счетам.
+ * <p>
+ * После прогона проверяется, что остатки не изменились, — то есть ни одно одновременное изменение не потеряно.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class AccountBalanceBenchmark {
+    private static final int ACCOUNTS = 1024;
+
+    @Param({"1", "1024"})
+    int hotAccounts;
+
+    @Param({"heap", "compact"})
+    String layout;
+
+    private final AccountService accountService = new AccountService();
+    private final String[] numbers = new String[ACCOUNTS];
+    private long total;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ClientRepository.use(BenchData.store(layout));
+        BenchData.populate(ACCOUNTS);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            numbers[i] = String.format("%012x", i % hotAccounts);
+        }
+        total = balances();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (balances() != total) {
+            throw new IllegalStateException("Сумма остатков изменилась: " + total + " -> " + balances());
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        int advance() {
+            return next++ & (ACCOUNTS - 1);
+        }
+    }
+
+    @Benchmark
+    public long creditThenDebit(Cursor cursor) {
+        String number = numbers[cursor.advance()];
+        accountService.credit(number, 100);
+        return accountService.debit(number, 100).balance();
+    }
+
+    private long balances() {
+        long sum = 0;
+        for (int i = 0; i < ACCOUNTS; i++) {
+            sum += accountService.find(String.format("%012x", i)).getBalance();
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,55 @@
+package com.bankapp.bench;
+
+import com.bankapp.model.Account;
+import com.bankapp.model.Client;
+import com.bankapp.repository.ClientRepository;
+import com.bankapp.repository.ClientStore;
+import com.bankapp.repository.CompactClientStore;
+import com.bankapp.repository.HeapClientStore;
+import com.bankapp.service.AuthMetricsService;
+import com.bankapp.util.PasswordHasher;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Быстрое заполнение репозитория для бенчмарков: без JavaFaker, клиент i — user<i> / pass<i> с одним счётом.
+ */
+final class BenchData {
+
+    private BenchData() {
+    }
+
+    static ClientStore store(String layout) {
+        return switch (layout) {
+            case "heap" -> new HeapClientStore();
+            case "compact" -> new CompactClientStore();
+            default -> throw new IllegalArgumentException("Неверный способ хранения: " + layout);
+        };
+    }
+
+    // Метрики без SLO-бакетов и перцентилей
+    static AuthMetricsService metrics(MeterRegistry registry) {
+        return new AuthMetricsService(registry, new Duration[0], new double[0], false);
+    }
+
+    // Пароли как есть, как по умолчанию в заглушке
+    static PasswordHasher plainPasswords() {
+        return new PasswordHasher("plain", 0, 0, metrics(new SimpleMeterRegistry()));
+    }
+
+    static void populate(int clients) {
+        for (int i = 0; i < clients; i++) {
+            ClientRepository.save(client(i, "user"));
+        }
+    }
+
+    static Client client(long i, String prefix) {
+        Client client = new Client(new UUID(i, ~i).toString(), "Client " + i, "+7900" + i, prefix + i, "pass" + i);
+        client.getAccounts().add(new Account(new UUID(~i, i).toString(),
+                String.format("%012x", i), String.format("%016x", i * 31), 10_000));
+        return client;
+    }
+}
@@ -0,0 +1,262 @@
+package com.bankapp.bench;
+
+import com.bankapp.standartmock.MyMock;
+import com.bankapp.util.SessionManager;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Сквозной бенчмарк: сколько задержки и какой потолок пропускной способности добавляет сама заглушка
+ * сверх задержки, заданной через API.
+ * <p>
+ * Запускает {@link MyMock} в этом же процессе на случайном порту и для каждого запроса, задержки и уровня
+ * параллелизма C гоняет замкнутую нагрузку: C цепочек, каждая отправляет следующий запрос сразу после ответа
+ * на предыдущий. Первая секунда — прогрев, затем измерение. Для каждой ячейки печатаются достигнутые rps,
+ * p50/p99/p99.9, накладные расходы — измеренная задержка минус заданная, а также пик живых потоков
+ * и занятой кучи процесса за время измерения (вместе с потоками и памятью самого генератора нагрузки).
+ * Идеальная заглушка даёт rps = C / задержка и нулевые накладные расходы.
+ * <p>
+ * Запуск:
+ * <pre>
+ * mvn -Pbench test-compile exec:java -Dexec.mainClass=com.bankapp.bench.EndToEndBenchmark \
+ *     -Dexec.args="login,loggedUser 0,100 1,16,64,256 5 --bankapp.delay.mode=async"
+ * </pre>
+ * Аргументы: запросы через запятую (login, logout, loggedUser, isLogged, register), задержки в мс,
+ * уровни параллелизма, длительность измерения одной ячейки в секундах. Аргументы, начинающиеся с {@code --},
+ * передаются заглушке как свойства Spring. Результаты дублируются в {@code target/e2e-benchmark.csv}.
+ * <p>
+ * Сравнение со стеком WebFlux при тех же задержках — сборка с профилем {@code reactive}
+ * ({@code mvn -Pbench,reactive ...}) и аргумент {@code --spring.profiles.active=reactive}.
+ */
+public class EndToEndBenchmark {
+    private static final String USERNAME = "bench";
+    private static final String PASSWORD = "bench";
+    private static final Duration WARMUP = Duration.ofSeconds(1);
+    private static final long SAMPLE_MILLIS = 50;
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final AtomicLong registered = new AtomicLong();
+    private final ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "e2e-sampler");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private String token;
+
+    EndToEndBenchmark(HttpClient client, String baseUrl) {
+        this.client = client;
+        this.baseUrl = baseUrl;
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> positional = new ArrayList<>();
+        List<String> appArgs = new ArrayList<>(List.of("--server.port=0", "--logging.level.root=WARN"));
+        for (String arg : args) {
+            (arg.startsWith("--") ? appArgs : positional).add(arg);
+        }
+        String[] endpoints = arg(positional, 0, "login,isLogged,loggedUser,logout,register").split(",");
+        long[] delays = Arrays.stream(arg(positional, 1, "0,100").split(",")).mapToLong(Long::parseLong).toArray();
+        int[] levels = Arrays.stream(arg(positional, 2, "1,16,64,256").split(",")).mapToInt(Integer::parseInt).toArray();
+        Duration measurement = Duration.ofSeconds(Long.parseLong(arg(positional, 3, "5")));
+
+        ConfigurableApplicationContext app = SpringApplication.run(MyMock.class, appArgs.toArray(String[]::new));
+        int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .executor(executor)
+                .build();
+
+        Path csv = Path.of("target", "e2e-benchmark.csv");
+        Files.createDirectories(csv.getParent());
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(csv))) {
+            EndToEndBenchmark benchmark = new EndToEndBenchmark(client, "http://localhost:" + port);
+            benchmark.prepare();
+
+            String header = String.format("%-11s %-9s %-12s %-9s %-7s %-10s %-9s %-9s %-9s %-13s %-13s %-8s %s",
+                    "endpoint", "delay_ms", "concurrency", "requests", "errors", "rps",
+                    "p50_ms", "p99_ms", "p99.9_ms", "overhead_p50", "overhead_p99", "threads", "heap_mb");
+            System.out.println(header);
+            out.println("endpoint,delay_ms,concurrency,requests,errors,rps,p50_ms,p99_ms,p99_9_ms,overhead_p50_ms,overhead_p99_ms,"
+                    + "peak_threads,peak_heap_mb");
+            for (String endpoint : endpoints) {
+                for (long delay : delays) {
+                    benchmark.setDelay(endpoint, delay);
+                    for (int concurrency : levels) {
+                        Cell cell = benchmark.run(endpoint, delay, concurrency, measurement);
+                        System.out.println(cell.format());
+                        out.println(cell.csv());
+                        out.flush();
+                    }
+                }
+                benchmark.setDelay(endpoint, 0);
+            }
+        } finally {
+            executor.shutdownNow();
+            app.close();
+        }
+        System.out.println("Результаты сохранены в " + csv.toAbsolutePath());
+    }
+
+    private static String arg(List<String> args, int index, String defaultValue) {
+        return args.size() > index ? args.get(index) : defaultValue;
+    }
+
+    // Клиент для входа и токен сессии для loggedUser и isLogged
+    private void prepare() throws Exception {
+        send(post("/auth/register?fullName=Bench&phone=0&username=" + USERNAME + "&password=" + PASSWORD));
+        HttpResponse<Void> login = send(post("/auth/login?username=" + USERNAME + "&password=" + PASSWORD));
+        token = login.headers().firstValue(SessionManager.TOKEN_HEADER)
+                .orElseThrow(() -> new IllegalStateException("Заглушка не вернула токен сессии"));
+    }
+
+    private void setDelay(String endpoint, long delayMillis) throws Exception {
+        HttpResponse<Void> response = send(post("/auth/setLatency?type=" + endpoint + "&distribution=fixed&millis=" + delayMillis));
+        if (response.statusCode() != 200) {
+            throw new IllegalArgumentException("Не удалось задать задержку для запроса " + endpoint);
+        }
+    }
+
+    private Cell run(String endpoint, long delayMillis, int concurrency, Duration measurement) throws InterruptedException {
+        Supplier<HttpRequest> requests = requests(endpoint);
+        Recorder recorder = new Recorder(3);
+        AtomicLong errors = new AtomicLong();
+
+        drive(requests, recorder, errors, concurrency, WARMUP);
+        recorder.reset();
+        errors.set(0);
+
+        // Пики потоков и занятой кучи за время измерения
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        AtomicInteger peakThreads = new AtomicInteger();
+        AtomicLong peakHeap = new AtomicLong();
+        var sampling = sampler.scheduleAtFixedRate(() -> {
+            peakThreads.accumulateAndGet(threads.getThreadCount(), Math::max);
+            peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+        }, 0, SAMPLE_MILLIS, TimeUnit.MILLISECONDS);
+
+        long start = System.nanoTime();
+        drive(requests, recorder, errors, concurrency, measurement);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        sampling.cancel(false);
+        return new Cell(endpoint, delayMillis, concurrency, recorder.getIntervalHistogram(), errors.get(), seconds,
+                peakThreads.get(), peakHeap.get() >> 20);
+    }
+
+    // Замкнутая нагрузка: concurrency цепочек запросов до истечения duration
+    private void drive(Supplier<HttpRequest> requests, Recorder recorder, AtomicLong errors, int concurrency,
+                       Duration duration) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        CountDownLatch done = new CountDownLatch(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            next(requests, recorder, errors, deadline, done);
+        }
+        done.await();
+    }
+
+    private void next(Supplier<HttpRequest> requests, Recorder recorder, AtomicLong errors, long deadline,
+                      CountDownLatch done) {
+        long start = System.nanoTime();
+        if (start >= deadline) {
+            done.countDown();
+            return;
+        }
+        client.sendAsync(requests.get(), HttpResponse.BodyHandlers.discarding()).whenComplete((response, e) -> {
+            if (e == null && response.statusCode() < 400) {
+                recorder.recordValue((System.nanoTime() - start) / 1_000);
+            } else {
+                errors.incrementAndGet();
+            }
+            next(requests, recorder, errors, deadline, done);
+        });
+    }
+
+    private Supplier<HttpRequest> requests(String endpoint) {
+        return switch (endpoint) {
+            case "login" -> {
+                HttpRequest login = post("/auth/login?username=" + USERNAME + "&password=" + PASSWORD);
+                yield () -> login;
+            }
+            case "loggedUser", "isLogged" -> {
+                HttpRequest get = HttpRequest.newBuilder(URI.create(baseUrl + "/auth/" + endpoint))
+                        .header(SessionManager.TOKEN_HEADER, token).GET().build();
+                yield () -> get;
+            }
+            // Выход с неизвестным токеном проходит тот же путь, но не закрывает сессию бенчмарка
+            case "logout" -> {
+                HttpRequest logout = HttpRequest.newBuilder(URI.create(baseUrl + "/auth/logout"))
+                        .header(SessionManager.TOKEN_HEADER, "bench-unknown-token")
+                        .POST(HttpRequest.BodyPublishers.noBody()).build();
+                yield () -> logout;
+            }
+            case "register" -> () -> post("/auth/register?fullName=Bench&phone=0&username=bench-"
+                    + registered.incrementAndGet() + "&password=" + PASSWORD);
+            default -> throw new IllegalArgumentException("Неверный тип запроса: " + endpoint);
+        };
+    }
+
+    private HttpRequest post(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).POST(HttpRequest.BodyPublishers.noBody()).build();
+    }
+
+    private HttpResponse<Void> send(HttpRequest request) throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.discarding());
+    }
+
+    private record Cell(String endpoint, long delayMillis, int concurrency, Histogram latencies, long errors,
+                        double seconds, int peakThreads, long peakHeapMb) {
+
+        double rps() {
+            return latencies.getTotalCount() / seconds;
+        }
+
+        double percentileMillis(double percentile) {
+            return latencies.getTotalCount() == 0 ? 0 : latencies.getValueAtPercentile(percentile) / 1000.0;
+        }
+
+        String format() {
+            return String.format(Locale.ROOT, "%-11s %-9d %-12d %-9d %-7d %-10.0f %-9.2f %-9.2f %-9.2f %-13.2f %-13.2f %-8d %d",
+                    endpoint, delayMillis, concurrency, latencies.getTotalCount(), errors, rps(),
+                    percentileMillis(50), percentileMillis(99), percentileMillis(99.9),
+                    percentileMillis(50) - delayMillis, percentileMillis(99) - delayMillis, peakThreads, peakHeapMb);
+        }
+
+        String csv() {
+            return String.format(Locale.ROOT, "%s,%d,%d,%d,%d,%.1f,%.3f,%.3f,%.3f,%.3f,%.3f,%d,%d",
+                    endpoint, delayMillis, concurrency, latencies.getTotalCount(), errors, rps(),
+                    percentileMillis(50), percentileMillis(99), percentileMillis(99.9),
+                    percentileMillis(50) - delayMillis, percentileMillis(99) - delayMillis, peakThreads, peakHeapMb);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.bankapp.bench;
+
+import com.bankapp.journal.JournalFile;
+import com.bankapp.journal.RequestJournal;
+
+import java.nio.file.Path;
+
+/**
+ * Выгрузка журнала запросов ({@code bankapp.journal.path}) в CSV для разбора в таблице или pandas.
+ * <p>
+ * Запуск из корня проекта:
+ * <pre>
+ * mvn -Pbench test-compile exec:java -Dexec.mainClass=com.bankapp.bench.JournalExport \
+ *     -Dexec.args="journal.bin journal.csv"
+ * </pre>
+ * С третьим аргументом печатает хеш логина — по нему в CSV находятся запросы этого пользователя.
+ */
+public class JournalExport {
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Аргументы: <журнал> <csv> [логин]");
+            System.exit(2);
+        }
+        long records = JournalFile.exportCsv(Path.of(args[0]), Path.of(args[1]));
+        System.out.printf("Выгружено записей: %d -> %s%n", records, args[1]);
+        if (args.length > 2) {
+            System.out.printf("user_hash для %s: %016x%n", args[2], RequestJournal.hash(args[2]));
+        }
+    }
+}
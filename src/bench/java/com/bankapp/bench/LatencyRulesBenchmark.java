@@ -0,0 +1,68 @@
+package com.bankapp.bench;
+
+import com.bankapp.latency.LatencyRule;
+import com.bankapp.latency.LatencyRules;
+import com.bankapp.latency.RequestHeaders;
+import com.bankapp.model.AuthEndpoint;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Поиск правила задержки для запроса при {@code rules} правилах: поровну точных логинов, префиксов,
+ * долей пользователей и заголовков, все — на login.
+ * <p>
+ * {@code prefixHit} — логин под префиксным правилом, {@code miss} — логин ни под одно правило не подходит
+ * (проверяются все индексы), {@code headerHit} — подходит только правило на заголовок в конце набора.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class LatencyRulesBenchmark {
+    private static final Map<String, Object> LATENCY = Map.of("distribution", "fixed", "millis", 100);
+
+    @Param({"8", "48"})
+    int rules;
+
+    private LatencyRules latencyRules;
+    private final RequestHeaders noHeader = name -> null;
+    private final RequestHeaders testRun = name -> name.equals("x-test-run") ? "run-0" : null;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Map<String, Object>> specs = new ArrayList<>();
+        for (int i = 0; i < rules / 4; i++) {
+            specs.add(Map.of("name", "exact" + i, "username", "client" + i, "latency", LATENCY));
+            specs.add(Map.of("name", "prefix" + i, "username", "user" + (i + 1) + "*", "latency", LATENCY));
+            // Доля так мала, что проверяемые логины в неё не попадают
+            specs.add(Map.of("name", "percent" + i, "userPercent", 0.01, "latency", LATENCY));
+            specs.add(Map.of("name", "header" + i, "header", "X-Test-Run", "headerValue", "run-" + (rules / 4 - 1 - i),
+                    "latency", LATENCY));
+        }
+        latencyRules = new LatencyRules(BenchData.metrics(new SimpleMeterRegistry()));
+        latencyRules.replace(LatencyRule.parseAll(specs));
+    }
+
+    @Benchmark
+    public LatencyRule prefixHit() {
+        return latencyRules.match(AuthEndpoint.LOGIN, "user1234567", noHeader);
+    }
+
+    @Benchmark
+    public LatencyRule miss() {
+        return latencyRules.match(AuthEndpoint.LOGIN, "alice", noHeader);
+    }
+
+    @Benchmark
+    public LatencyRule headerHit() {
+        return latencyRules.match(AuthEndpoint.LOGIN, "alice", testRun);
+    }
+}
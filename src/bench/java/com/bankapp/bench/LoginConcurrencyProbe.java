@@ -0,0 +1,122 @@
+package com.bankapp.bench;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Проверка того, сколько одновременных задержанных запросов /auth/login выдерживает запущенная заглушка.
+ * <p>
+ * Для каждого уровня параллелизма C отправляется C запросов разом: сначала без задержки — этот прогон открывает
+ * соединения и показывает базовое время, — затем с задержкой. Время ответа на все задержанные запросы, делённое
+ * на задержку, показывает число «волн»: если сервер держит все запросы одновременно, волна одна (плюс доля
+ * на обработку); если запросы встают в очередь пула потоков — их C / размер пула. Волны не бывают меньше одной:
+ * каждый задержанный ответ приходит не раньше задержки.
+ * <p>
+ * Уровень считается выдержанным, если задержанный прогон длился не больше базового плюс полторы задержки.
+ * Задержку стоит брать заметно больше базового времени, иначе волны почти целиком состоят из обработки.
+ * <p>
+ * Запуск:
+ * <pre>
+ * mvn -Pbench test-compile exec:java -Dexec.mainClass=com.bankapp.bench.LoginConcurrencyProbe \
+ *     -Dexec.args="http://localhost:8081 10 100,400,1600,6400"
+ * </pre>
+ * Аргументы: адрес заглушки, задержка login в секундах, уровни параллелизма через запятую.
+ */
+public class LoginConcurrencyProbe {
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8081";
+        int delaySeconds = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        int[] levels = Arrays.stream((args.length > 2 ? args[2] : "100,400,1600,6400").split(","))
+                .mapToInt(Integer::parseInt).toArray();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .executor(executor)
+                .build();
+
+        post(client, baseUrl + "/auth/register?fullName=Probe&phone=0&username=probe&password=probe");
+        // Прогрев JIT и сервера без задержки
+        setLoginTimeout(client, baseUrl, 0);
+        run(client, baseUrl, levels[levels.length - 1]);
+
+        long delayMillis = delaySeconds * 1000L;
+        System.out.printf("%-12s %-8s %-8s %-10s %-10s %-10s %-10s %-8s %s%n",
+                "concurrency", "ok", "errors", "base_ms", "wall_ms", "p50_ms", "max_ms", "waves", "sustained");
+        int sustained = 0;
+        for (int concurrency : levels) {
+            setLoginTimeout(client, baseUrl, 0);
+            Result base = run(client, baseUrl, concurrency);
+            setLoginTimeout(client, baseUrl, delaySeconds);
+            Result r = run(client, baseUrl, concurrency);
+
+            double waves = (double) r.wallMillis / delayMillis;
+            // Все запросы ждали одновременно, если задержка добавила к базовому времени не больше полутора задержек
+            boolean ok = r.errors == 0 && r.wallMillis <= base.wallMillis + delayMillis * 3 / 2;
+            if (ok) {
+                sustained = concurrency;
+            }
+            System.out.printf("%-12d %-8d %-8d %-10d %-10d %-10d %-10d %-8.1f %s%n", concurrency, r.ok, r.errors,
+                    base.wallMillis, r.wallMillis, r.p50Millis, r.maxMillis, waves, ok ? "yes" : "no");
+        }
+        System.out.println("Максимум одновременных запросов в пределах одной задержки: " + sustained);
+
+        setLoginTimeout(client, baseUrl, 0);
+        executor.shutdownNow();
+    }
+
+    private static void setLoginTimeout(HttpClient client, String baseUrl, int seconds) throws Exception {
+        post(client, baseUrl + "/auth/setTimeout?type=login&timeout=" + seconds);
+    }
+
+    private static Result run(HttpClient client, String baseUrl, int concurrency) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/auth/login?username=probe&password=probe"))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .timeout(Duration.ofMinutes(5))
+                .build();
+
+        long start = System.nanoTime();
+        List<CompletableFuture<Long>> calls = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            calls.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .thenApply(response -> response.statusCode() == 200 ? System.nanoTime() - start : -1L)
+                    .exceptionally(e -> -1L));
+        }
+
+        long[] latencies = calls.stream().mapToLong(CompletableFuture::join).toArray();
+        long wall = (System.nanoTime() - start) / 1_000_000;
+        long[] okLatencies = Arrays.stream(latencies).filter(l -> l >= 0).sorted().toArray();
+
+        Result r = new Result();
+        r.ok = okLatencies.length;
+        r.errors = concurrency - okLatencies.length;
+        r.wallMillis = wall;
+        r.p50Millis = okLatencies.length == 0 ? 0 : okLatencies[okLatencies.length / 2] / 1_000_000;
+        r.maxMillis = okLatencies.length == 0 ? 0 : okLatencies[okLatencies.length - 1] / 1_000_000;
+        return r;
+    }
+
+    private static void post(HttpClient client, String url) throws Exception {
+        client.send(HttpRequest.newBuilder(URI.create(url)).POST(HttpRequest.BodyPublishers.noBody()).build(),
+                HttpResponse.BodyHandlers.discarding());
+    }
+
+    private static final class Result {
+        int ok;
+        int errors;
+        long wallMillis;
+        long p50Millis;
+        long maxMillis;
+    }
+}
@@ -0,0 +1,79 @@
+package com.bankapp.bench;
+
+import com.bankapp.model.Client;
+import com.bankapp.model.Credentials;
+import com.bankapp.repository.ClientRepository;
+import com.bankapp.service.ClientService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость проверки входа в зависимости от числа клиентов и способа хранения.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class LoginLookupBenchmark {
+    private static final int KEYS = 1024;
+
+    @Param({"1000", "100000", "1000000"})
+    int clients;
+
+    @Param({"heap", "compact"})
+    String layout;
+
+    private ClientService clientService;
+    private final String[] usernames = new String[KEYS];
+    private final String[] passwords = new String[KEYS];
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ClientRepository.use(BenchData.store(layout));
+        BenchData.populate(clients);
+        clientService = new ClientService(BenchData.plainPasswords());
+        SplittableRandom random = new SplittableRandom(42);
+        for (int k = 0; k < KEYS; k++) {
+            int i = random.nextInt(clients);
+            usernames[k] = "user" + i;
+            passwords[k] = "pass" + i;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        int advance() {
+            return next++ & (KEYS - 1);
+        }
+    }
+
+    @Benchmark
+    public Optional<Credentials> login(Cursor cursor) {
+        int k = cursor.advance();
+        return clientService.login(usernames[k], passwords[k]);
+    }
+
+    @Benchmark
+    public Optional<Credentials> loginWrongPassword(Cursor cursor) {
+        int k = cursor.advance();
+        return clientService.login(usernames[k], "wrong");
+    }
+
+    @Benchmark
+    public Optional<Credentials> loginUnknownUser(Cursor cursor) {
+        int k = cursor.advance();
+        return clientService.login(passwords[k], passwords[k]);
+    }
+
+    @Benchmark
+    public Optional<Client> findByUsername(Cursor cursor) {
+        return ClientRepository.findByUsername(usernames[cursor.advance()]);
+    }
+}
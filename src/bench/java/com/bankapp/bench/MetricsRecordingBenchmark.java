@@ -0,0 +1,67 @@
+package com.bankapp.bench;
+
+import com.bankapp.service.AuthMetricsService;
+import com.bankapp.util.DelayEngine;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Накладные расходы метрик на запрос в том же реестре Prometheus, что и у заглушки:
+ * запись таймеров запроса при разных настройках гистограмм и полный путь {@link DelayEngine} без задержки.
+ * <p>
+ * Настройки: {@code none} — только count/sum/max, {@code slo} — SLO-бакеты по умолчанию,
+ * {@code percentiles} — SLO и клиентские p50/p99/p99.9, {@code histogram} — SLO и полная гистограмма перцентилей.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class MetricsRecordingBenchmark {
+    private static final Duration[] SLO = {Duration.ofMillis(10), Duration.ofMillis(50), Duration.ofMillis(100),
+            Duration.ofMillis(500), Duration.ofSeconds(1), Duration.ofSeconds(5)};
+
+    @Param({"none", "slo", "percentiles", "histogram"})
+    String metrics;
+
+    private AuthMetricsService.RequestMetrics login;
+    private DelayEngine delayEngine;
+    private final ResponseEntity<String> ok = ResponseEntity.ok("ok");
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        AuthMetricsService authMetrics = switch (metrics) {
+            case "none" -> BenchData.metrics(registry);
+            case "slo" -> new AuthMetricsService(registry, SLO, new double[0], false);
+            case "percentiles" -> new AuthMetricsService(registry, SLO, new double[]{0.5, 0.99, 0.999}, false);
+            case "histogram" -> new AuthMetricsService(registry, SLO, new double[0], true);
+            default -> throw new IllegalArgumentException(metrics);
+        };
+        login = authMetrics.getLoginMetrics();
+        delayEngine = new DelayEngine("async", 1, 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        delayEngine.shutdown();
+    }
+
+    @Benchmark
+    public void recordRequest() {
+        login.record(200, 1_500_000, 1_000_000, 500_000);
+    }
+
+    @Benchmark
+    public CompletableFuture<ResponseEntity<String>> delayEngineWithoutDelay() {
+        return delayEngine.delay(0, login, () -> ok);
+    }
+}
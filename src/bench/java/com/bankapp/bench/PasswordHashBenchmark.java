@@ -0,0 +1,74 @@
+package com.bankapp.bench;
+
+import com.bankapp.model.Client;
+import com.bankapp.model.Credentials;
+import com.bankapp.repository.ClientRepository;
+import com.bankapp.service.ClientService;
+import com.bankapp.util.PasswordHasher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Вход при хранении хешей PBKDF2 в зависимости от числа итераций и кеша проверенных входов.
+ * <p>
+ * {@value #USERS} пользователей входят по кругу, кеш вмещает их всех: с кешем после прогрева каждый вход —
+ * попадание, без кеша — полное хеширование. {@code loginWrongPassword} хеширует всегда.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PasswordHashBenchmark {
+    private static final int USERS = 256;
+
+    @Param({"1000", "10000"})
+    int iterations;
+
+    @Param({"0", "1024"})
+    int cacheSize;
+
+    private ClientService clientService;
+    private final String[] usernames = new String[USERS];
+    private final String[] passwords = new String[USERS];
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        PasswordHasher hasher = new PasswordHasher("pbkdf2", iterations, cacheSize,
+                BenchData.metrics(new SimpleMeterRegistry()));
+        ClientRepository.use(BenchData.store("heap"));
+        for (int i = 0; i < USERS; i++) {
+            Client client = BenchData.client(i, "user");
+            usernames[i] = client.getUsername();
+            passwords[i] = client.getPassword();
+            client.setPassword(hasher.encode(client.getPassword()));
+            ClientRepository.save(client);
+        }
+        clientService = new ClientService(hasher);
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        int advance() {
+            return next++ & (USERS - 1);
+        }
+    }
+
+    @Benchmark
+    public Optional<Credentials> login(Cursor cursor) {
+        int k = cursor.advance();
+        return clientService.login(usernames[k], passwords[k]);
+    }
+
+    @Benchmark
+    public Optional<Credentials> loginWrongPassword(Cursor cursor) {
+        int k = cursor.advance();
+        return clientService.login(usernames[k], "wrong");
+    }
+}
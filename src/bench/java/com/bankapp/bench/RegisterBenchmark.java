@@ -0,0 +1,46 @@
+package com.bankapp.bench;
+
+import com.bankapp.model.Client;
+import com.bankapp.repository.ClientRepository;
+import com.bankapp.service.ClientService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Пропускная способность регистрации при конкурентной записи из нескольких потоков.
+ * Хранилище пересоздаётся на каждой итерации, чтобы его размер не рос от итерации к итерации.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@Threads(4)
+public class RegisterBenchmark {
+    private static final AtomicInteger THREADS = new AtomicInteger();
+
+    @Param({"heap", "compact"})
+    String layout;
+
+    private final ClientService clientService = new ClientService(BenchData.plainPasswords());
+
+    @Setup(Level.Iteration)
+    public void resetStore() {
+        ClientRepository.use(BenchData.store(layout));
+    }
+
+    @State(Scope.Thread)
+    public static class Usernames {
+        final String prefix = "t" + THREADS.incrementAndGet() + "-";
+        long next;
+    }
+
+    @Benchmark
+    public Client register(Usernames usernames) {
+        String username = usernames.prefix + usernames.next++;
+        return clientService.register("Load Test", "+79001234567", username, "secret");
+    }
+}
@@ -0,0 +1,45 @@
+package com.bankapp.bench;
+
+import com.bankapp.repository.ClientRepository;
+import com.bankapp.repository.CompactClientStore;
+import com.bankapp.repository.HeapClientStore;
+import com.bankapp.service.DataSeeder;
+
+/**
+ * Объём кучи, который занимают клиенты при разных способах хранения.
+ * <p>
+ * Заполняет репозиторий тем же {@link DataSeeder}, что и заглушка (один счёт на клиента), и печатает прирост
+ * занятой кучи после сборки мусора. Каждый способ хранения лучше мерить в отдельном запуске JVM:
+ * <pre>
+ * mvn -Pbench test-compile exec:java -Dexec.mainClass=com.bankapp.bench.RepositoryFootprint -Dexec.args="heap 1000000"
+ * mvn -Pbench test-compile exec:java -Dexec.mainClass=com.bankapp.bench.RepositoryFootprint -Dexec.args="compact 1000000"
+ * </pre>
+ */
+public class RepositoryFootprint {
+
+    public static void main(String[] args) {
+        String layout = args.length > 0 ? args[0] : "heap";
+        int count = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+
+        ClientRepository.use(switch (layout) {
+            case "heap" -> new HeapClientStore();
+            case "compact" -> new CompactClientStore();
+            default -> throw new IllegalArgumentException("Неверный способ хранения: " + layout);
+        });
+
+        DataSeeder seeder = new DataSeeder(0, 42, 1, 0, "en", BenchData.plainPasswords());
+        long heapBefore = usedHeapAfterGc();
+        DataSeeder.SeedReport report = seeder.seed(1, count, 42, 1);
+        long heapDeltaMb = (usedHeapAfterGc() - heapBefore) / (1024 * 1024);
+
+        double perMillionMb = heapDeltaMb * 1_000_000.0 / count;
+        System.out.printf("layout=%s clients=%d elapsed_ms=%d heap_delta_mb=%d heap_per_million_mb=%.0f%n",
+                layout, report.inserted(), report.elapsedMillis(), heapDeltaMb, perMillionMb);
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,69 @@
+package com.bankapp.bench;
+
+import com.bankapp.journal.RequestJournal;
+import com.bankapp.model.AuthEndpoint;
+import com.bankapp.service.AuthMetricsService;
+import com.bankapp.util.DelayEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость журнала запросов на пути запроса: {@link DelayEngine} без задержки с журналом и без него.
+ * <p>
+ * Журнал пишется во временный файл фоновым потоком раз в миллисекунду. Если поток записи не успевает за
+ * бенчмарком, часть записей отбрасывается — их число печатается после прогона.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class RequestJournalBenchmark {
+    @Param({"off", "on"})
+    String journal;
+
+    private Path file;
+    private RequestJournal requestJournal;
+    private AuthMetricsService.RequestMetrics login;
+    private DelayEngine delayEngine;
+    private final ResponseEntity<String> ok = ResponseEntity.ok("ok");
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        AuthMetricsService authMetrics = BenchData.metrics(new SimpleMeterRegistry());
+        file = Files.createTempFile("journal", ".bin");
+        Files.delete(file);
+        requestJournal = new RequestJournal(journal.equals("on") ? file.toString() : "", 1 << 20,
+                Duration.ofMillis(1), authMetrics);
+        login = authMetrics.getLoginMetrics();
+        delayEngine = new DelayEngine("async", 1, 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        delayEngine.shutdown();
+        requestJournal.shutdown();
+        if (requestJournal.isEnabled()) {
+            System.out.printf("%nЖурнал: %d байт, отброшено записей %d%n", Files.size(file), requestJournal.getDropped());
+        }
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public CompletableFuture<ResponseEntity<String>> loginWithoutDelay() {
+        if (!requestJournal.isEnabled()) {
+            return delayEngine.delay(0, login, () -> ok);
+        }
+        return delayEngine.delay(0, login, requestJournal.begin(AuthEndpoint.LOGIN, "user1", 0, () -> ok));
+    }
+}
@@ -0,0 +1,76 @@
+package com.bankapp.bench;
+
+import com.bankapp.model.Credentials;
+import com.bankapp.util.SessionManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Операции с сессиями при заданном числе живых сессий: вход с выходом и проверка токена —
+ * с хранилищем сессий ({@code store}) и с подписанными токенами ({@code signed}).
+ * <p>
+ * Запускать с {@code -prof gc}: в режиме {@code signed} проверка {@code isLogged} не выделяет памяти.
+ * В {@code loginLogout} для {@code signed} список отозванных токенов заполняется за первые итерации,
+ * дальше выход проверяет подпись и учитывает переполнение, поэтому результат — нижняя граница.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@Threads(4)
+public class SessionBenchmark {
+    private static final int TOKENS = 1024;
+
+    @Param({"1000", "1000000"})
+    int liveSessions;
+
+    @Param({"store", "signed"})
+    String mode;
+
+    private SessionManager sessionManager;
+    private final String[] tokens = new String[TOKENS];
+    private final Credentials credentials = new Credentials("00000000-0000-0000-0000-000000000001", "user1", "pass1");
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sessionManager = new SessionManager(Duration.ofMinutes(30), Duration.ofHours(12), Duration.ofMinutes(30),
+                mode, "bench-signing-key", 1 << 20, BenchData.metrics(new SimpleMeterRegistry()));
+        for (int i = 0; i < liveSessions; i++) {
+            String token = sessionManager.login(credentials);
+            if (i < TOKENS) {
+                tokens[i] = token;
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sessionManager.shutdown();
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public Optional<SessionManager.Session> find(Cursor cursor) {
+        return sessionManager.find(tokens[cursor.next++ & (TOKENS - 1)]);
+    }
+
+    @Benchmark
+    public boolean isLogged(Cursor cursor) {
+        return sessionManager.isLoggedIn(tokens[cursor.next++ & (TOKENS - 1)]);
+    }
+
+    @Benchmark
+    public boolean loginLogout() {
+        return sessionManager.logout(sessionManager.login(credentials));
+    }
+}
@@ -0,0 +1,147 @@
+package com.bankapp.bench;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Время до первого ответа и занятая память (RSS) заглушки при запуске в разных режимах.
+ * <p>
+ * Каждый режим запускается отдельным процессом на свободном порту; время считается от запуска процесса
+ * до первого ответа 200 на {@code GET /auth/isLogged}, RSS читается из {@code /proc/<pid>/status}
+ * сразу после него (только Linux). Печатаются медиана и минимум по нескольким запускам.
+ * <p>
+ * Режимы:
+ * <ul>
+ *     <li>{@code default} — обычный исполняемый jar;</li>
+ *     <li>{@code aot} — тонкий jar из {@code target/fast-start} с контекстом, обработанным AOT, без архива CDS;</li>
+ *     <li>{@code fast-start} — то же с архивом AppCDS {@code target/fast-start/app.jsa}.</li>
+ * </ul>
+ * Запуск из корня проекта после {@code mvn -Pfast-start package}:
+ * <pre>
+ * mvn -Pbench test-compile exec:java -Dexec.mainClass=com.bankapp.bench.StartupProbe \
+ *     -Dexec.args="5 default,aot,fast-start"
+ * </pre>
+ * Аргументы: число запусков на режим, режимы через запятую.
+ */
+public class StartupProbe {
+    private static final String JAR = "target/my-spring-boot-app-1.0.0.jar";
+    private static final String FAST_START_JAR = "target/fast-start/my-spring-boot-app-1.0.0-fast-start.jar";
+    private static final String CDS_ARCHIVE = "target/fast-start/app.jsa";
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    public static void main(String[] args) throws Exception {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        String[] modes = (args.length > 1 ? args[1] : "default,aot,fast-start").split(",");
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(1))
+                .build();
+
+        System.out.printf("%-12s %-6s %-16s %-16s %-14s %s%n",
+                "mode", "runs", "first_req_ms_p50", "first_req_ms_min", "rss_mb_p50", "rss_mb_min");
+        for (String mode : modes) {
+            long[] firstRequest = new long[runs];
+            long[] rss = new long[runs];
+            for (int i = 0; i < runs; i++) {
+                Sample sample = start(client, command(mode, freePort()));
+                firstRequest[i] = sample.firstRequestMillis;
+                rss[i] = sample.rssKb / 1024;
+            }
+            Arrays.sort(firstRequest);
+            Arrays.sort(rss);
+            System.out.printf("%-12s %-6d %-16d %-16d %-14d %d%n", mode, runs,
+                    firstRequest[runs / 2], firstRequest[0], rss[runs / 2], rss[0]);
+        }
+    }
+
+    private static List<String> command(String mode, int port) {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        List<String> command = new ArrayList<>(List.of(java));
+        switch (mode) {
+            case "default" -> command.addAll(List.of("-jar", JAR));
+            case "aot" -> command.addAll(List.of("-Dspring.aot.enabled=true", "-jar", FAST_START_JAR,
+                    "--spring.profiles.active=fast-start"));
+            case "fast-start" -> command.addAll(List.of("-XX:SharedArchiveFile=" + CDS_ARCHIVE, "-Xlog:cds*=error",
+                    "-Dspring.aot.enabled=true", "-jar", FAST_START_JAR, "--spring.profiles.active=fast-start"));
+            default -> throw new IllegalArgumentException("Неверный режим: " + mode + ". Допустимые значения: default, aot, fast-start");
+        }
+        String jar = command.get(command.indexOf("-jar") + 1);
+        if (!Files.exists(Path.of(jar))) {
+            throw new IllegalStateException("Не найден " + jar + " — соберите проект" + (mode.equals("default") ? "" : " с профилем -Pfast-start"));
+        }
+        command.addAll(List.of("--server.port=" + port, "--logging.level.root=WARN"));
+        return command;
+    }
+
+    private static Sample start(HttpClient client, List<String> command) throws Exception {
+        HttpRequest probe = HttpRequest.newBuilder(URI.create("http://localhost:" + port(command) + "/auth/isLogged"))
+                .timeout(Duration.ofSeconds(5)).GET().build();
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            long deadline = start + STARTUP_TIMEOUT.toNanos();
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Заглушка завершилась с кодом " + process.exitValue() + ": " + command);
+                }
+                try {
+                    if (client.send(probe, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        long firstRequest = (System.nanoTime() - start) / 1_000_000;
+                        return new Sample(firstRequest, rssKb(process.pid()));
+                    }
+                } catch (ConnectException e) {
+                    // Порт ещё не открыт
+                }
+                Thread.sleep(10);
+            }
+            throw new IllegalStateException("Заглушка не ответила за " + STARTUP_TIMEOUT.toSeconds() + " с: " + command);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static long rssKb(long pid) throws IOException {
+        for (String line : Files.readAllLines(Path.of("/proc", String.valueOf(pid), "status"))) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.replaceAll("\\D", ""));
+            }
+        }
+        return 0;
+    }
+
+    private static int port(List<String> command) {
+        for (String arg : command) {
+            if (arg.startsWith("--server.port=")) {
+                return Integer.parseInt(arg.substring("--server.port=".length()));
+            }
+        }
+        throw new IllegalArgumentException("Не задан порт");
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private record Sample(long firstRequestMillis, long rssKb) {
+    }
+}
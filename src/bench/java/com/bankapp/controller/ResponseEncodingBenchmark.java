@@ -0,0 +1,100 @@
+package com.bankapp.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Выделение памяти на ответ /auth/login, /auth/isLogged и 401: прежний путь (строка или Boolean через
+ * {@code StringHttpMessageConverter} и Jackson) против заранее закодированных тел из {@code AuthResponses}.
+ * <p>
+ * Лежит в пакете контроллера, потому что {@code AuthResponses} закрыт в нём.
+ * Запускать с профилировщиком GC, выделение на запрос — {@code gc.alloc.rate.norm}:
+ * <pre>
+ * mvn -Pbench test-compile exec:exec@jmh -Djmh.args="ResponseEncoding -prof gc"
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseEncodingBenchmark {
+    private final StringHttpMessageConverter strings = new StringHttpMessageConverter(StandardCharsets.UTF_8);
+    private final MappingJackson2HttpMessageConverter jackson = new MappingJackson2HttpMessageConverter(new ObjectMapper());
+    private final ByteArrayHttpMessageConverter bytes = new ByteArrayHttpMessageConverter();
+    private final Output output = new Output();
+
+    private final String username = "user12345";
+    private final String token = "9f1c2e7a4b3d5c6e8a7b9c0d1e2f3a4b";
+
+    @Benchmark
+    public void loginOkString() throws IOException {
+        ResponseEntity<String> response = ResponseEntity.ok().header("X-Session-Token", token)
+                .body("✅ Успешный вход: " + username);
+        strings.write(response.getBody(), AuthResponses.TEXT_UTF8, output.reset());
+    }
+
+    @Benchmark
+    public void loginOkPreEncoded() throws IOException {
+        ResponseEntity<byte[]> response = AuthResponses.loginOk(username, token);
+        bytes.write(response.getBody(), AuthResponses.TEXT_UTF8, output.reset());
+    }
+
+    @Benchmark
+    public void loginFailedString() throws IOException {
+        ResponseEntity<String> response = ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body("❌ Ошибка: Неверный логин или пароль");
+        strings.write(response.getBody(), AuthResponses.TEXT_UTF8, output.reset());
+    }
+
+    @Benchmark
+    public void loginFailedPreEncoded() throws IOException {
+        bytes.write(AuthResponses.LOGIN_FAILED.getBody(), AuthResponses.TEXT_UTF8, output.reset());
+    }
+
+    @Benchmark
+    public void isLoggedJackson() throws IOException {
+        ResponseEntity<Boolean> response = ResponseEntity.ok(Boolean.TRUE);
+        jackson.write(response.getBody(), MediaType.APPLICATION_JSON, output.reset());
+    }
+
+    @Benchmark
+    public void isLoggedPreEncoded() throws IOException {
+        bytes.write(AuthResponses.isLogged(true).getBody(), MediaType.APPLICATION_JSON, output.reset());
+    }
+
+    // Ответ без сети: заголовки переиспользуются, тело отбрасывается
+    private static final class Output implements HttpOutputMessage {
+        private final HttpHeaders headers = new HttpHeaders();
+        private final OutputStream body = OutputStream.nullOutputStream();
+
+        Output reset() {
+            headers.clear();
+            return this;
+        }
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.bankapp.controller;
+
+import com.bankapp.model.BalanceOverflowException;
+import com.bankapp.model.InsufficientFundsException;
+import com.bankapp.repository.AccountNotFoundException;
+import com.bankapp.service.AccountService;
+import com.bankapp.service.AuthMetricsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Остатки счетов: поиск по номеру счёта или карты, списание, пополнение и перевод. Суммы — в копейках.
+ */
+@RestController
+@RequestMapping("/accounts")
+public class AccountController {
+    private final AccountService accountService;
+    private final AuthMetricsService authMetrics;
+
+    public AccountController(AccountService accountService, AuthMetricsService authMetrics) {
+        this.accountService = accountService;
+        this.authMetrics = authMetrics;
+    }
+
+    // 1️⃣ Получить счёт с остатком
+    @Operation(summary = "Остаток счёта",
+            description = "Возвращает счёт по номеру счёта или номеру карты, остаток — в копейках",
+            parameters = {
+                    @Parameter(name = "number", description = "Номер счёта или карты", required = true,
+                            example = "4f9a0c2b7d1e", in = ParameterIn.PATH)},
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Счёт найден",
+                            content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = """
+                                    {
+                                      "id": "1b4e28ba-2fa1-41d2-883f-0016d3cca427",
+                                      "accountNumber": "4f9a0c2b7d1e",
+                                      "cardNumber": "9c3b1f0a2e4d6c8b",
+                                      "balance": 1250075
+                                    }"""))),
+                    @ApiResponse(responseCode = "404", description = "Счёт не найден")})
+    @GetMapping("/{number}")
+    public ResponseEntity<Object> getAccount(@PathVariable String number) {
+        return respond(authMetrics.getAccountMetrics(), () -> accountService.find(number));
+    }
+
+    // 2️⃣ Списать со счёта
+    @Operation(summary = "Списание",
+            description = "Списывает сумму со счёта, если хватает средств. Одновременные списания с одного счёта не блокируют друг друга",
+            parameters = {
+                    @Parameter(name = "number", description = "Номер счёта или карты", required = true,
+                            example = "4f9a0c2b7d1e", in = ParameterIn.PATH),
+                    @Parameter(name = "amount", description = "Сумма в копейках", required = true,
+                            example = "10000", in = ParameterIn.QUERY)},
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Сумма списана, возвращается новый остаток",
+                            content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = """
+                                    {
+                                      "number": "4f9a0c2b7d1e",
+                                      "amount": 10000,
+                                      "balance": 1240075
+                                    }"""))),
+                    @ApiResponse(responseCode = "400", description = "Неверная сумма"),
+                    @ApiResponse(responseCode = "404", description = "Счёт не найден"),
+                    @ApiResponse(
+                            responseCode = "409",
+                            description = "Недостаточно средств",
+                            content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = """
+                                    {
+                                      "error": "Недостаточно средств на счёте 4f9a0c2b7d1e: остаток 500, списание 10000"
+                                    }""")))})
+    @PostMapping("/{number}/debit")
+    public ResponseEntity<Object> debit(@PathVariable String number, @RequestParam long amount) {
+        return respond(authMetrics.getDebitMetrics(), () -> accountService.debit(number, amount));
+    }
+
+    // 3️⃣ Пополнить счёт
+    @Operation(summary = "Пополнение",
+            description = "Зачисляет сумму на счёт",
+            parameters = {
+                    @Parameter(name = "number", description = "Номер счёта или карты", required = true,
+                            example = "4f9a0c2b7d1e", in = ParameterIn.PATH),
+                    @Parameter(name = "amount", description = "Сумма в копейках", required = true,
+                            example = "10000", in = ParameterIn.QUERY)},
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Сумма зачислена, возвращается новый остаток"),
+                    @ApiResponse(responseCode = "400", description = "Неверная сумма"),
+                    @ApiResponse(responseCode = "404", description = "Счёт не найден"),
+                    @ApiResponse(responseCode = "409", description = "Остаток превысит предел")})
+    @PostMapping("/{number}/credit")
+    public ResponseEntity<Object> credit(@PathVariable String number, @RequestParam long amount) {
+        return respond(authMetrics.getCreditMetrics(), () -> accountService.credit(number, amount));
+    }
+
+    // 4️⃣ Перевести между счетами
+    @Operation(summary = "Перевод",
+            description = "Списывает сумму со счёта from и зачисляет на счёт to. Счета задаются номером счёта или карты",
+            parameters = {
+                    @Parameter(name = "from", description = "Счёт или карта списания", required = true,
+                            example = "4f9a0c2b7d1e", in = ParameterIn.QUERY),
+                    @Parameter(name = "to", description = "Счёт или карта зачисления", required = true,
+                            example = "9c3b1f0a2e4d6c8b", in = ParameterIn.QUERY),
+                    @Parameter(name = "amount", description = "Сумма в копейках", required = true,
+                            example = "10000", in = ParameterIn.QUERY)},
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Перевод выполнен",
+                            content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = """
+                                    {
+                                      "from": "4f9a0c2b7d1e",
+                                      "to": "9c3b1f0a2e4d6c8b",
+                                      "amount": 10000,
+                                      "fromBalance": 1240075,
+                                      "toBalance": 310000
+                                    }"""))),
+                    @ApiResponse(responseCode = "400", description = "Неверная сумма или совпадающие счета"),
+                    @ApiResponse(responseCode = "404", description = "Счёт не найден"),
+                    @ApiResponse(responseCode = "409", description = "Недостаточно средств или остаток зачисления превысит предел")})
+    @PostMapping("/transfer")
+    public ResponseEntity<Object> transfer(@RequestParam String from, @RequestParam String to, @RequestParam long amount) {
+        return respond(authMetrics.getTransferMetrics(), () -> accountService.transfer(from, to, amount));
+    }
+
+    // Ответ с кодом по исходу операции, время и исход пишутся в метрики запроса
+    private static ResponseEntity<Object> respond(AuthMetricsService.RequestMetrics metrics, Supplier<Object> operation) {
+        return metrics.record(() -> {
+            try {
+                return ResponseEntity.ok(operation.get());
+            } catch (AccountNotFoundException e) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+            } catch (InsufficientFundsException | BalanceOverflowException e) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            }
+        });
+    }
+}
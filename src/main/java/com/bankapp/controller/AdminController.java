@@ -0,0 +1,90 @@
+package com.bankapp.controller;
+
+import com.bankapp.service.DataSeeder;
+import com.bankapp.service.SnapshotService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin")
+public class AdminController {
+    private final DataSeeder dataSeeder;
+    private final SnapshotService snapshotService;
+
+    public AdminController(DataSeeder dataSeeder, SnapshotService snapshotService) {
+        this.dataSeeder = dataSeeder;
+        this.snapshotService = snapshotService;
+    }
+
+    // 1️⃣ Заполнить репозиторий тестовыми клиентами
+    @Operation(summary = "Заполнение тестовыми клиентами",
+            description = "Параллельно создаёт клиентов со счетами. Клиент с номером i получает логин user<i> и пароль pass<i>, " +
+                    "остальные данные детерминированно генерируются из seed",
+            parameters = {
+                    @Parameter(name = "count", description = "Количество клиентов", required = true,
+                            example = "100000", in = ParameterIn.QUERY),
+                    @Parameter(name = "from", description = "Номер первого клиента", example = "1", in = ParameterIn.QUERY),
+                    @Parameter(name = "seed", description = "Зерно генератора данных", example = "42", in = ParameterIn.QUERY),
+                    @Parameter(name = "accounts", description = "Количество счетов у клиента", example = "1",
+                            in = ParameterIn.QUERY)},
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Клиенты созданы",
+                            content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = """
+                                    {
+                                      "requested": 100000,
+                                      "inserted": 100000,
+                                      "skipped": 0,
+                                      "elapsedMillis": 2350,
+                                      "allocatedMb": 2600,
+                                      "totalClients": 100000
+                                    }"""))),
+                    @ApiResponse(responseCode = "400", description = "Ошибка валидации входных параметров")})
+    @PostMapping("/seed")
+    public ResponseEntity<?> seed(@RequestParam int count,
+                                  @RequestParam(defaultValue = "1") int from,
+                                  @RequestParam(defaultValue = "42") long seed,
+                                  @RequestParam(defaultValue = "1") int accounts) {
+        try {
+            return ResponseEntity.ok(dataSeeder.seed(from, count, seed, accounts));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // 2️⃣ Записать снимок клиентов на диск
+    @Operation(summary = "Запись снимка клиентов",
+            description = "Записывает клиентов и их счета в двоичный файл bankapp.snapshot.path, " +
+                    "из которого они загружаются при следующем старте",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Снимок записан",
+                            content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = """
+                                    {
+                                      "clients": 1000000,
+                                      "bytes": 142000000,
+                                      "elapsedMillis": 1800
+                                    }"""))),
+                    @ApiResponse(responseCode = "409", description = "Снимки отключены")})
+    @PostMapping("/snapshot")
+    public ResponseEntity<?> snapshot() {
+        if (!snapshotService.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", "Снимки отключены: не задано свойство bankapp.snapshot.path"));
+        }
+        return ResponseEntity.ok(snapshotService.write());
+    }
+}
@@ -1,10 +1,34 @@
 package com.bankapp.controller;
 
+import com.bankapp.journal.RequestJournal;
+import com.bankapp.latency.CapacityExceededException;
+import com.bankapp.latency.CapacityModel;
+import com.bankapp.latency.CapacitySettings;
+import com.bankapp.latency.Fault;
+import com.bankapp.latency.InjectedFaultException;
+import com.bankapp.latency.LatencyProfile;
+import com.bankapp.latency.LatencyRule;
+import com.bankapp.latency.LatencyRules;
+import com.bankapp.latency.LatencySettings;
+import com.bankapp.latency.LatencyTable;
+import com.bankapp.latency.RequestHeaders;
+import com.bankapp.model.AuthEndpoint;
 import com.bankapp.model.Client;
+import com.bankapp.model.Credentials;
 import com.bankapp.repository.ClientRepository;
+import com.bankapp.repository.DuplicateUsernameException;
+import com.bankapp.model.BatchItem;
+import com.bankapp.model.BatchItemResult;
 import com.bankapp.service.AuthMetricsService;
+import com.bankapp.service.BatchAuthService;
 import com.bankapp.service.ClientService;
+import com.bankapp.util.DelayEngine;
 import com.bankapp.util.SessionManager;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
@@ -12,30 +36,57 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
 import java.util.*;
-import java.util.function.IntConsumer;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
+// В реактивном приложении (профиль reactive) эти запросы обслуживает ReactiveAuthController
 @RestController
 @RequestMapping("/auth")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class AuthController {
     private final ClientService clientService;
     private final SessionManager sessionManager;
     private final AuthMetricsService authMetrics;
+    private final DelayEngine delayEngine;
+    private final LatencySettings latency;
+    private final CapacitySettings capacity;
+    private final BatchAuthService batchAuthService;
+    private final ObjectMapper objectMapper;
+    private final RequestJournal journal;
+    private final LatencyRules rules;
 
-    private volatile int timeoutLogin = 0,
-            timeoutLogout = 0,
-            timeoutLoggedUser = 0,
-            timeoutIsLogged = 0,
-            timeoutRegister = 0;
+    private static final String NDJSON = "application/x-ndjson";
+    private static final int MAX_PAGE_SIZE = 10_000;
+    private static final int STREAM_BATCH_SIZE = 1024;
 
-    public AuthController(ClientService clientService, SessionManager sessionManager, AuthMetricsService authMetrics) {
+    public AuthController(ClientService clientService, SessionManager sessionManager,
+                          AuthMetricsService authMetrics, DelayEngine delayEngine, LatencySettings latency,
+                          CapacitySettings capacity, BatchAuthService batchAuthService, ObjectMapper objectMapper,
+                          RequestJournal journal, LatencyRules rules) {
         this.clientService = clientService;
         this.sessionManager = sessionManager;
         this.authMetrics = authMetrics;
+        this.delayEngine = delayEngine;
+        this.latency = latency;
+        this.capacity = capacity;
+        this.batchAuthService = batchAuthService;
+        this.objectMapper = objectMapper;
+        this.journal = journal;
+        this.rules = rules;
     }
 
     // 1️⃣ Установить timeout для запросов login, logout, loggedUser, isLogged, register
@@ -81,25 +132,17 @@ public class AuthController {
                                     }""")))})
     @PostMapping("/setTimeout")
     public ResponseEntity<Map<String, Object>> setTimeout(@RequestParam String type, @RequestParam Integer timeout) {
-        authMetrics.getSetTimeoutCalls().increment();
-        return authMetrics.getSetTimeoutTimer().record(() -> {
+        return authMetrics.getSetTimeoutMetrics().record(() -> {
             if (timeout < 0) {
                 return ResponseEntity.badRequest().body(Map.of("error", "Таймаут должен быть положительным числом"));
             }
 
-            Map<String, IntConsumer> timeoutRepo = Map.of(
-                    "login", val -> { timeoutLogin = val; authMetrics.updateTimeout("login", val); },
-                    "logout", val -> { timeoutLogout = val; authMetrics.updateTimeout("logout", val); },
-                    "loggedUser", val -> { timeoutLoggedUser = val; authMetrics.updateTimeout("loggedUser", val); },
-                    "isLogged", val -> { timeoutIsLogged = val; authMetrics.updateTimeout("isLogged", val); },
-                    "register", val -> { timeoutRegister = val; authMetrics.updateTimeout("register", val); });
-
-            if (!timeoutRepo.containsKey(type)) {
+            Optional<AuthEndpoint> endpoint = AuthEndpoint.fromKey(type);
+            if (endpoint.isEmpty()) {
                 return ResponseEntity.badRequest().body(Map.of("error", "Неверный тип запроса."));
             }
 
-            int timeoutMillis = timeout * 1000;
-            timeoutRepo.get(type).accept(timeoutMillis);
+            latency.set(endpoint.get(), new LatencyProfile.Fixed(timeout * 1000L));
 
             Map<String, Integer> timeouts = getCurrentTimeouts();
             Map<String, Object> response = new LinkedHashMap<>();
@@ -110,14 +153,13 @@ public class AuthController {
         });
     }
 
-    // Вспомогательный метод для получения всех текущих таймаутов в секундах
+    // Вспомогательный метод для получения всех текущих таймаутов в секундах (для распределений — среднее)
     private Map<String, Integer> getCurrentTimeouts() {
+        LatencyTable table = latency.current();
         Map<String, Integer> timeouts = new LinkedHashMap<>();
-        timeouts.put("login", timeoutLogin / 1000);
-        timeouts.put("logout", timeoutLogout / 1000);
-        timeouts.put("loggedUser", timeoutLoggedUser / 1000);
-        timeouts.put("isLogged", timeoutIsLogged / 1000);
-        timeouts.put("register", timeoutRegister / 1000);
+        for (AuthEndpoint endpoint : AuthEndpoint.values()) {
+            timeouts.put(endpoint.getKey(), (int) Math.round(table.get(endpoint).meanMillis() / 1000));
+        }
         return timeouts;
     }
 
@@ -156,15 +198,28 @@ public class AuthController {
                             description = "Пользователь успешно зарегистрирован",
                             content = @Content(
                                     mediaType = "application/json",
-                                    schema = @Schema(implementation = Client.class)))})
+                                    schema = @Schema(implementation = Client.class))),
+                    @ApiResponse(responseCode = "400", description = "Логин длиннее 255 байт в UTF-8"),
+                    @ApiResponse(
+                            responseCode = "409",
+                            description = "Логин уже занят",
+                            content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = """
+                                    {
+                                      "error": "Пользователь с логином user11 уже зарегистрирован"
+                                    }""")))})
     @PostMapping("/register")
-    public ResponseEntity<Client> register(@RequestParam String fullName, @RequestParam String phone,
-                                           @RequestParam String username, @RequestParam String password) {
-        authMetrics.getRegisterCalls().increment();
-        return ResponseEntity.ok(authMetrics.getRegisterTimer().record(() -> {
-            try { Thread.sleep(timeoutRegister); } catch (InterruptedException ignored) {}
-            return clientService.register(fullName, phone, username, password);
-        }));
+    public CompletableFuture<ResponseEntity<?>> register(@RequestParam String fullName, @RequestParam String phone,
+                                                         @RequestParam String username, @RequestParam String password) {
+        return delayed(AuthEndpoint.REGISTER, authMetrics.getRegisterMetrics(), username, () -> {
+            try {
+                return ResponseEntity.ok(clientService.register(fullName, phone, username, password));
+            } catch (DuplicateUsernameException e) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            }
+        });
     }
 
     // 3️⃣ Выполнить авторизацию в системе
@@ -187,7 +242,7 @@ public class AuthController {
             responses = {
                     @ApiResponse(
                             responseCode = "200",
-                            description = "Авторизация выполнена",
+                            description = "Авторизация выполнена, токен сессии возвращается в заголовке " + SessionManager.TOKEN_HEADER,
                             content = @Content(
                                     schema = @Schema(implementation = String.class),
                                     examples = {@ExampleObject("✅ Успешный вход: user1")})),
@@ -196,21 +251,22 @@ public class AuthController {
                             description = "Неверные учетные данные",
                             content = @Content(
                                     schema = @Schema(implementation = String.class),
-                                    examples = {@ExampleObject("❌ Ошибка: Неверный логин или пароль")}))})
+                                    examples = {@ExampleObject("❌ Ошибка: Неверный логин или пароль")})),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Логин не помещается в подписанный токен сессии (длиннее 255 байт в UTF-8)")})
     @PostMapping("/login")
-    public ResponseEntity<String> login(@RequestParam String username, @RequestParam String password) {
-        authMetrics.getLoginCalls().increment();
-
-        return authMetrics.getLoginTimer().record(() -> {
-            try { Thread.sleep(timeoutLogin); } catch (InterruptedException ignored) {}
-
-            Optional<Client> clientOpt = clientService.login(username, password);
-            if (clientOpt.isPresent()) {
-                sessionManager.login(clientOpt.get());
-                return ResponseEntity.ok("✅ Успешный вход: " + username);
+    public CompletableFuture<ResponseEntity<byte[]>> login(@RequestParam String username, @RequestParam String password) {
+        return delayed(AuthEndpoint.LOGIN, authMetrics.getLoginMetrics(), username, () -> {
+            Optional<Credentials> credentials = clientService.login(username, password);
+            if (credentials.isPresent()) {
+                try {
+                    return AuthResponses.loginOk(username, sessionManager.login(credentials.get()));
+                } catch (IllegalArgumentException e) {
+                    return AuthResponses.loginRejected(e.getMessage());
+                }
             } else {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body("❌ Ошибка: Неверный логин или пароль");
+                return AuthResponses.LOGIN_FAILED;
             }
         });
     }
@@ -219,6 +275,13 @@ public class AuthController {
     @Operation(
             summary = "Получение авторизованного пользователя",
             description = "Возвращает логин пользователя, авторизованного в системе. Если пользователь не авторизован, возвращается ошибка.",
+            parameters = {
+                    @Parameter(
+                            name = SessionManager.TOKEN_HEADER,
+                            description = "Токен сессии, выданный при входе",
+                            required = true,
+                            example = "9f1c2e7a4b3d5c6e8a7b9c0d1e2f3a4b",
+                            in = ParameterIn.HEADER)},
             responses = {
                     @ApiResponse(
                             responseCode = "200",
@@ -228,23 +291,19 @@ public class AuthController {
                                     examples = {@ExampleObject("user1")})),
                     @ApiResponse(
                             responseCode = "401",
-                            description = "Пользователь не авторизован",
+                            description = "Пользователь не авторизован или сессия истекла",
                             content = @Content(
                                     schema = @Schema(implementation = String.class),
                                     examples = {@ExampleObject("❌ Ошибка: Отсутствует авторизованный пользователь")}))})
     @GetMapping("/loggedUser")
-    public ResponseEntity<String> getLoggedUser() {
-        authMetrics.getLoggedUserCalls().increment();
-
-        return authMetrics.getLoggedUserTimer().record(() -> {
-            try { Thread.sleep(timeoutLoggedUser); } catch (InterruptedException ignored) {}
-
-            Client loggedUser = sessionManager.getLoggedInClient();
-            if (loggedUser != null) {
-                return ResponseEntity.ok(loggedUser.getUsername());
+    public CompletableFuture<ResponseEntity<byte[]>> getLoggedUser(
+            @RequestHeader(value = SessionManager.TOKEN_HEADER, required = false) String token) {
+        return delayed(AuthEndpoint.LOGGED_USER, authMetrics.getLoggedUserMetrics(), sessionUser(AuthEndpoint.LOGGED_USER, token), () -> {
+            Optional<SessionManager.Session> session = sessionManager.find(token);
+            if (session.isPresent()) {
+                return AuthResponses.loggedUser(session.get().getUsername());
             } else {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body("❌ Ошибка: Отсутствует авторизованный пользователь");
+                return AuthResponses.NOT_LOGGED_IN;
             }
         });
     }
@@ -252,6 +311,13 @@ public class AuthController {
     // 5️⃣ Получить статус авторизации пользователя
     @Operation(summary = "Проверка статуса авторизации пользователя",
             description = "Выполняет проверку авторизации пользователя в системе",
+            parameters = {
+                    @Parameter(
+                            name = SessionManager.TOKEN_HEADER,
+                            description = "Токен сессии, выданный при входе",
+                            required = true,
+                            example = "9f1c2e7a4b3d5c6e8a7b9c0d1e2f3a4b",
+                            in = ParameterIn.HEADER)},
             responses = {
                     @ApiResponse(
                             responseCode = "200",
@@ -260,17 +326,22 @@ public class AuthController {
                                     schema = @Schema(implementation = Boolean.class),
                                     examples = {@ExampleObject("true"), @ExampleObject("false")}))})
     @GetMapping("/isLogged")
-    public ResponseEntity<Boolean> isLogged() {
-        authMetrics.getIsLoggedCalls().increment();
-        return ResponseEntity.ok(authMetrics.getIsLoggedTimer().record(() -> {
-            try { Thread.sleep(timeoutIsLogged); } catch (InterruptedException ignored) {}
-            return sessionManager.isLoggedIn();
-        }));
+    public CompletableFuture<ResponseEntity<byte[]>> isLogged(
+            @RequestHeader(value = SessionManager.TOKEN_HEADER, required = false) String token) {
+        return delayed(AuthEndpoint.IS_LOGGED, authMetrics.getIsLoggedMetrics(), sessionUser(AuthEndpoint.IS_LOGGED, token), () ->
+                AuthResponses.isLogged(sessionManager.isLoggedIn(token)));
     }
 
     // 6️⃣ Выполнить выход из системы
     @Operation(summary = "Выход из системы",
             description = "Выполняет выход пользователя из системы",
+            parameters = {
+                    @Parameter(
+                            name = SessionManager.TOKEN_HEADER,
+                            description = "Токен сессии, выданный при входе",
+                            required = true,
+                            example = "9f1c2e7a4b3d5c6e8a7b9c0d1e2f3a4b",
+                            in = ParameterIn.HEADER)},
             responses = {
                     @ApiResponse(
                             responseCode = "200",
@@ -279,31 +350,272 @@ public class AuthController {
                                     schema = @Schema(implementation = String.class),
                                     examples = {@ExampleObject("✅ Успешный выход")}))})
     @PostMapping("/logout")
-    public ResponseEntity<String> logout() {
-        authMetrics.getLogoutCalls().increment();
-        return ResponseEntity.ok(authMetrics.getLogoutTimer().record(() -> {
-            try { Thread.sleep(timeoutLogout); } catch (InterruptedException ignored) {}
-            sessionManager.logout();
-            return "✅ Успешный выход";
-        }));
+    public CompletableFuture<ResponseEntity<byte[]>> logout(
+            @RequestHeader(value = SessionManager.TOKEN_HEADER, required = false) String token) {
+        return delayed(AuthEndpoint.LOGOUT, authMetrics.getLogoutMetrics(), sessionUser(AuthEndpoint.LOGOUT, token), () -> {
+            sessionManager.logout(token);
+            return AuthResponses.LOGOUT_OK;
+        });
     }
 
-    // 7️⃣ Получить список всех зарегистрированных пользователей
+    // 7️⃣ Получить список зарегистрированных пользователей
     @Operation(
-            summary = "Получение списка всех пользователей",
-            description = "Получает список всех пользователей, зарегистрированных в системе",
+            summary = "Получение списка пользователей",
+            description = "Без параметра limit возвращает массив всех пользователей, зарегистрированных в системе. " +
+                    "С параметром limit возвращает страницу и курсор nextCursor для следующей страницы",
+            parameters = {
+                    @Parameter(
+                            name = "limit",
+                            description = "Размер страницы, не больше " + MAX_PAGE_SIZE,
+                            example = "1000",
+                            in = ParameterIn.QUERY),
+                    @Parameter(
+                            name = "cursor",
+                            description = "Курсор из nextCursor предыдущей страницы",
+                            example = "1000",
+                            in = ParameterIn.QUERY),
+                    @Parameter(
+                            name = "fields",
+                            description = "Поля через запятую: id, fullName, phone, username, password, accounts",
+                            example = "username,password",
+                            in = ParameterIn.QUERY)},
             responses = {
                     @ApiResponse(
                             responseCode = "200",
                             description = "Список клиентов успешно получен",
                             content = @Content(
                                     mediaType = "application/json",
-                                    schema = @Schema(implementation = Client.class)))})
+                                    schema = @Schema(implementation = Client.class),
+                                    examples = @ExampleObject(name = "Страница", value = """
+                                            {
+                                              "clients": [ { "username": "user1", "password": "pass1" } ],
+                                              "nextCursor": 1
+                                            }"""))),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Ошибка валидации входных параметров")})
     @GetMapping("/clients")
-    public ResponseEntity<List<Client>> getAllClients() {
-        authMetrics.getGetAllClientsCalls().increment();
-        return ResponseEntity.ok(authMetrics.getGetAllClientsTimer().record(() ->
-                List.copyOf(ClientRepository.getAllClients())
-        ));
+    public ResponseEntity<?> getAllClients(@RequestParam(required = false) Integer limit,
+                                           @RequestParam(defaultValue = "0") long cursor,
+                                           @RequestParam(required = false) String fields) {
+        return authMetrics.getGetAllClientsMetrics().record(() -> {
+            ClientProjection projection;
+            try {
+                projection = ClientProjection.parse(fields);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            }
+            if (limit == null) {
+                if (projection.isAll()) {
+                    return ResponseEntity.ok(List.copyOf(ClientRepository.getAllClients()));
+                }
+                List<Object> clients = new ArrayList<>(ClientRepository.count());
+                ClientRepository.forEach(client -> clients.add(projection.project(client)));
+                return ResponseEntity.ok(clients);
+            }
+            if (limit < 1 || limit > MAX_PAGE_SIZE || cursor < 0) {
+                return ResponseEntity.badRequest().body(Map.of("error",
+                        "limit должен быть от 1 до " + MAX_PAGE_SIZE + ", cursor — неотрицательным"));
+            }
+
+            List<Object> page = new ArrayList<>(limit);
+            long next = ClientRepository.scan(cursor, limit, client -> page.add(projection.project(client)));
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("clients", page);
+            // Короткая страница не значит конец: строка могла быть ещё не записана регистрацией
+            response.put("nextCursor", next < ClientRepository.scanEnd() ? next : null);
+            return ResponseEntity.ok(response);
+        });
+    }
+
+    // 8️⃣ Выгрузить всех пользователей потоком NDJSON
+    @Operation(
+            summary = "Потоковая выгрузка пользователей",
+            description = "Пишет пользователей в ответ по одному JSON-объекту на строку по мере обхода репозитория, " +
+                    "не собирая список в памяти. Выгружаются клиенты, существовавшие на момент запроса",
+            parameters = @Parameter(
+                    name = "fields",
+                    description = "Поля через запятую: id, fullName, phone, username, password, accounts",
+                    example = "username,password",
+                    in = ParameterIn.QUERY),
+            responses = @ApiResponse(
+                    responseCode = "200",
+                    description = "Поток пользователей",
+                    content = @Content(
+                            mediaType = NDJSON,
+                            examples = @ExampleObject("""
+                                    {"username":"user1","password":"pass1"}
+                                    {"username":"user2","password":"pass2"}""")))
+    )
+    @GetMapping(value = "/clients/stream", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamClients(@RequestParam(required = false) String fields) {
+        ClientProjection projection = ClientProjection.parse(fields);
+        StreamingResponseBody body = out -> {
+            long start = System.nanoTime();
+            int status = 500;
+            try (JsonGenerator generator = objectMapper.createGenerator(out, JsonEncoding.UTF8)) {
+                generator.setRootValueSeparator(null);
+                // Клиенты пишутся пачками, после каждой пачки ответ сбрасывается клиенту. Граница берётся один раз:
+                // клиенты, добавленные во время выгрузки, в неё не попадают, иначе при медленном читателе и идущей
+                // регистрации поток не закончился бы
+                long end = ClientRepository.scanEnd();
+                long cursor = 0;
+                while (cursor < end) {
+                    long next = ClientRepository.scan(cursor, STREAM_BATCH_SIZE, client -> {
+                        try {
+                            projection.write(generator, client);
+                            generator.writeRaw('\n');
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                    generator.flush();
+                    if (next == cursor) {
+                        // Строка ниже границы зарезервирована регистрацией, но ещё не записана — появится через мгновение
+                        Thread.onSpinWait();
+                    }
+                    cursor = next;
+                }
+                status = 200;
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } finally {
+                authMetrics.getStreamClientsMetrics().record(status, System.nanoTime() - start);
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    // 9️⃣ Пакетный вход
+    @Operation(
+            summary = "Пакетный вход",
+            description = "Выполняет вход для списка пользователей и возвращает результаты потоком NDJSON в порядке запроса: " +
+                    "код как у /auth/login и токен сессии. Задержки не применяются, метрики пишутся в bankapp.auth.batch",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = """
+                                    [ { "username": "user1", "password": "pass1" }, { "username": "user2", "password": "pass2" } ]"""))),
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Результаты по элементам",
+                            content = @Content(
+                                    mediaType = NDJSON,
+                                    examples = @ExampleObject("""
+                                            {"index":0,"username":"user1","status":200,"token":"9f1c2e7a4b3d5c6e8a7b9c0d1e2f3a4b","clientId":"c0a8..."}
+                                            {"index":1,"username":"user2","status":401,"error":"Неверный логин или пароль"}"""))),
+                    @ApiResponse(responseCode = "400", description = "Пустой или слишком большой пакет")})
+    @PostMapping(value = "/login/batch", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> loginBatch(@RequestBody List<BatchItem> items) {
+        batchAuthService.validate(items);
+        return ndjson(out -> batchAuthService.login(items, out));
+    }
+
+    // 🔟 Пакетная регистрация
+    @Operation(
+            summary = "Пакетная регистрация",
+            description = "Регистрирует список пользователей и возвращает результаты потоком NDJSON в порядке запроса: " +
+                    "код как у /auth/register (200, 409, 400) и id клиента. Задержки не применяются",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = """
+                                    [ { "fullName": "Lada Mills", "phone": "+79001234567", "username": "user11", "password": "pass11" } ]"""))),
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Результаты по элементам",
+                            content = @Content(
+                                    mediaType = NDJSON,
+                                    examples = @ExampleObject("""
+                                            {"index":0,"username":"user11","status":200,"clientId":"c0a8..."}"""))),
+                    @ApiResponse(responseCode = "400", description = "Пустой или слишком большой пакет")})
+    @PostMapping(value = "/register/batch", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> registerBatch(@RequestBody List<BatchItem> items) {
+        batchAuthService.validate(items);
+        return ndjson(out -> batchAuthService.register(items, out));
+    }
+
+    private interface BatchCall {
+        void run(BatchAuthService.ResultWriter out) throws IOException;
+    }
+
+    // Результаты пакета по объекту на строку, сбрасываются клиенту после каждой части
+    private ResponseEntity<StreamingResponseBody> ndjson(BatchCall call) {
+        // Без сброса после каждого элемента: ответ сбрасывается частями
+        ObjectWriter writer = objectMapper.writerFor(BatchItemResult.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(out, JsonEncoding.UTF8)) {
+                generator.setRootValueSeparator(null);
+                call.run(new BatchAuthService.ResultWriter() {
+                    @Override
+                    public void write(BatchItemResult result) throws IOException {
+                        writer.writeValue(generator, result);
+                        generator.writeRaw('\n');
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        generator.flush();
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    // Задержка, доля ошибок и ёмкость, заданные для запроса или подошедшим правилом; username — для правил и журнала
+    private <T extends ResponseEntity<?>> CompletableFuture<T> delayed(AuthEndpoint endpoint,
+                                                                      AuthMetricsService.RequestMetrics metrics,
+                                                                      String username, Supplier<T> action) {
+        LatencyTable table = latency.current();
+        LatencyRule rule = rules.match(endpoint, username, rules.needsHeaders(endpoint) ? currentHeaders() : null);
+        Fault fault = rule != null && rule.getFault() != null ? rule.getFault() : table.fault(endpoint);
+        LatencyProfile profile = rule != null && rule.getLatency() != null ? rule.getLatency() : table.get(endpoint);
+        Supplier<T> respond = fault.trigger() ? () -> { throw new InjectedFaultException(fault.status()); } : action;
+        long delayMillis = profile.sampleMillis();
+        CapacityModel model = capacity.get(endpoint);
+        if (!journal.isEnabled()) {
+            return delayEngine.delay(delayMillis, model, metrics, respond);
+        }
+
+        RequestJournal.Entry<T> entry = journal.begin(endpoint, username, delayMillis, respond);
+        CompletableFuture<T> result = delayEngine.delay(delayMillis, model, metrics, entry);
+        if (!entry.isStarted() && result.isCompletedExceptionally()) {
+            // Ответ не формировался — запрос отклонён моделью ёмкости
+            entry.rejected(model.getRejectStatus());
+        }
+        return result;
+    }
+
+    // Логин по токену, только если он нужен журналу или правилам задержки эндпоинта.
+    // Ищется до ответа, потому что logout удаляет сессию
+    private String sessionUser(AuthEndpoint endpoint, String token) {
+        return journal.isEnabled() || rules.needsUsername(endpoint)
+                ? sessionManager.find(token).map(SessionManager.Session::getUsername).orElse(null)
+                : null;
+    }
+
+    private static RequestHeaders currentHeaders() {
+        return RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                ? attributes.getRequest()::getHeader
+                : null;
+    }
+
+    @ExceptionHandler(CapacityExceededException.class)
+    public ResponseEntity<Map<String, Object>> handleCapacityExceeded(CapacityExceededException e) {
+        return ResponseEntity.status(e.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("error", e.getMessage()));
+    }
+
+    @ExceptionHandler(InjectedFaultException.class)
+    public ResponseEntity<Map<String, Object>> handleInjectedFault(InjectedFaultException e) {
+        return ResponseEntity.status(e.getStatus()).body(Map.of("error", e.getMessage()));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, Object>> handleIllegalArgument(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
     }
 }
\ No newline at end of file
@@ -0,0 +1,70 @@
+package com.bankapp.controller;
+
+import com.bankapp.util.SessionManager;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Тела ответов /auth/*, заранее закодированные в UTF-8.
+ * <p>
+ * Постоянные ответы собраны один раз и переиспользуются: заголовки {@link ResponseEntity} неизменяемы,
+ * а массив байт пишется в ответ как есть, без {@code StringHttpMessageConverter} и Jackson.
+ * Ответы с логином склеиваются из готового префикса и байт логина.
+ */
+final class AuthResponses {
+    static final MediaType TEXT_UTF8 = new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8);
+
+    private static final byte[] LOGIN_OK_PREFIX = utf8("✅ Успешный вход: ");
+
+    static final ResponseEntity<byte[]> LOGIN_FAILED = text(HttpStatus.UNAUTHORIZED, "❌ Ошибка: Неверный логин или пароль");
+    static final ResponseEntity<byte[]> NOT_LOGGED_IN = text(HttpStatus.UNAUTHORIZED, "❌ Ошибка: Отсутствует авторизованный пользователь");
+    static final ResponseEntity<byte[]> LOGOUT_OK = text(HttpStatus.OK, "✅ Успешный выход");
+    static final ResponseEntity<byte[]> LOGGED_IN = json("true");
+    static final ResponseEntity<byte[]> NOT_LOGGED = json("false");
+
+    private AuthResponses() {
+    }
+
+    static ResponseEntity<byte[]> loginOk(String username, String token) {
+        return ResponseEntity.ok()
+                .contentType(TEXT_UTF8)
+                .header(SessionManager.TOKEN_HEADER, token)
+                .body(concat(LOGIN_OK_PREFIX, username));
+    }
+
+    // Вход отклонён до проверки пароля, например логин не помещается в подписанный токен
+    static ResponseEntity<byte[]> loginRejected(String reason) {
+        return text(HttpStatus.BAD_REQUEST, "❌ Ошибка: " + reason);
+    }
+
+    static ResponseEntity<byte[]> loggedUser(String username) {
+        return ResponseEntity.ok().contentType(TEXT_UTF8).body(utf8(username));
+    }
+
+    static ResponseEntity<byte[]> isLogged(boolean loggedIn) {
+        return loggedIn ? LOGGED_IN : NOT_LOGGED;
+    }
+
+    private static ResponseEntity<byte[]> text(HttpStatus status, String body) {
+        return ResponseEntity.status(status).contentType(TEXT_UTF8).body(utf8(body));
+    }
+
+    private static ResponseEntity<byte[]> json(String body) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(utf8(body));
+    }
+
+    private static byte[] concat(byte[] prefix, String value) {
+        byte[] suffix = utf8(value);
+        byte[] result = Arrays.copyOf(prefix, prefix.length + suffix.length);
+        System.arraycopy(suffix, 0, result, prefix.length, suffix.length);
+        return result;
+    }
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
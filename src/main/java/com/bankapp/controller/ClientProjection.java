@@ -0,0 +1,89 @@
+package com.bankapp.controller;
+
+import com.bankapp.model.Client;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Набор полей клиента для выдачи списка, например {@code username,password} для скриптов,
+ * которым нужны только учётные данные.
+ */
+final class ClientProjection {
+    static final List<String> FIELDS = List.of("id", "fullName", "phone", "username", "password", "accounts");
+
+    private final boolean[] selected = new boolean[FIELDS.size()];
+    private final boolean all;
+
+    private ClientProjection(Set<String> fields) {
+        this.all = fields == null;
+        for (int i = 0; i < selected.length; i++) {
+            selected[i] = all || fields.contains(FIELDS.get(i));
+        }
+    }
+
+    /**
+     * @param fields поля через запятую; {@code null} или пустая строка — все поля
+     * @throws IllegalArgumentException если указано неизвестное поле
+     */
+    static ClientProjection parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return new ClientProjection(null);
+        }
+        Set<String> names = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (!FIELDS.contains(name)) {
+                throw new IllegalArgumentException("Неизвестное поле " + name + ". Допустимые значения: " + String.join(", ", FIELDS));
+            }
+            names.add(name);
+        }
+        return new ClientProjection(names);
+    }
+
+    boolean isAll() {
+        return all;
+    }
+
+    // Клиент целиком или словарь выбранных полей — для обычного JSON-ответа
+    Object project(Client client) {
+        if (all) {
+            return client;
+        }
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (int i = 0; i < selected.length; i++) {
+            if (selected[i]) {
+                values.put(FIELDS.get(i), value(client, i));
+            }
+        }
+        return values;
+    }
+
+    // Запись выбранных полей клиента одним JSON-объектом
+    void write(JsonGenerator generator, Client client) throws IOException {
+        if (all) {
+            generator.writeObject(client);
+            return;
+        }
+        generator.writeStartObject();
+        for (int i = 0; i < selected.length; i++) {
+            if (selected[i]) {
+                generator.writeFieldName(FIELDS.get(i));
+                generator.writeObject(value(client, i));
+            }
+        }
+        generator.writeEndObject();
+    }
+
+    private static Object value(Client client, int field) {
+        return switch (field) {
+            case 0 -> client.getId();
+            case 1 -> client.getFullName();
+            case 2 -> client.getPhone();
+            case 3 -> client.getUsername();
+            case 4 -> client.getPassword();
+            default -> client.getAccounts();
+        };
+    }
+}
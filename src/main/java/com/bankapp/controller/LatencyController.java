@@ -0,0 +1,333 @@
+package com.bankapp.controller;
+
+import com.bankapp.latency.CapacityModel;
+import com.bankapp.latency.CapacitySettings;
+import com.bankapp.latency.LatencyProfile;
+import com.bankapp.latency.LatencyRule;
+import com.bankapp.latency.LatencyRules;
+import com.bankapp.latency.LatencyScenario;
+import com.bankapp.latency.LatencySettings;
+import com.bankapp.latency.ScenarioRunner;
+import com.bankapp.model.AuthEndpoint;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.*;
+
+@RestController
+@RequestMapping("/auth")
+public class LatencyController {
+    private final LatencySettings latency;
+    private final CapacitySettings capacity;
+    private final ScenarioRunner scenarios;
+    private final LatencyRules rules;
+
+    public LatencyController(LatencySettings latency, CapacitySettings capacity, ScenarioRunner scenarios,
+                             LatencyRules rules) {
+        this.latency = latency;
+        this.capacity = capacity;
+        this.scenarios = scenarios;
+        this.rules = rules;
+    }
+
+    // 1️⃣ Получить текущие профили задержки
+    @Operation(summary = "Текущие профили задержки",
+            description = "Возвращает распределение задержки ответа для каждого запроса",
+            responses = @ApiResponse(
+                    responseCode = "200",
+                    description = "Профили задержки",
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = """
+                                    {
+                                      "login": { "distribution": "lognormal", "median": 30.0, "p99": 800.0 },
+                                      "logout": { "distribution": "fixed", "millis": 0 }
+                                    }"""))))
+    @GetMapping("/latency")
+    public ResponseEntity<Map<String, Object>> getLatency() {
+        return ResponseEntity.ok(latency.current().describe());
+    }
+
+    // 2️⃣ Установить параметрическое распределение задержки
+    @Operation(summary = "Установка распределения задержки в миллисекундах",
+            description = "Распределения и их параметры: fixed (millis), uniform (min, max), " +
+                    "normal (mean, stddev), lognormal (median, p99)",
+            parameters = {
+                    @Parameter(name = "type", description = "Типы запросов: login, logout, loggedUser, isLogged, register",
+                            required = true, example = "login", in = ParameterIn.QUERY),
+                    @Parameter(name = "distribution", description = "fixed, uniform, normal, lognormal",
+                            required = true, example = "lognormal", in = ParameterIn.QUERY)},
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Распределение установлено"),
+                    @ApiResponse(responseCode = "400", description = "Ошибка валидации входных параметров",
+                            content = @Content(mediaType = "application/json",
+                                    examples = @ExampleObject(value = """
+                                            {
+                                              "error": "p99 должен быть не меньше median"
+                                            }""")))})
+    @PostMapping("/setLatency")
+    public ResponseEntity<Map<String, Object>> setLatency(@RequestParam String type,
+                                                          @RequestParam String distribution,
+                                                          @RequestParam(required = false) Long millis,
+                                                          @RequestParam(required = false) Long min,
+                                                          @RequestParam(required = false) Long max,
+                                                          @RequestParam(required = false) Double mean,
+                                                          @RequestParam(required = false) Double stddev,
+                                                          @RequestParam(required = false) Double median,
+                                                          @RequestParam(required = false) Double p99) {
+        Map<String, Object> spec = new HashMap<>();
+        spec.put("distribution", distribution);
+        spec.put("millis", millis);
+        spec.put("min", min);
+        spec.put("max", max);
+        spec.put("mean", mean);
+        spec.put("stddev", stddev);
+        spec.put("median", median);
+        spec.put("p99", p99);
+        spec.values().removeIf(Objects::isNull);
+        try {
+            return apply(type, LatencyProfile.fromSpec(spec));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // 3️⃣ Загрузить эмпирическую таблицу перцентилей
+    @Operation(summary = "Загрузка эмпирического распределения задержки",
+            description = "Принимает таблицу «перцентиль → задержка в мс». Между точками задержка интерполируется линейно",
+            parameters = @Parameter(name = "type", description = "Типы запросов: login, logout, loggedUser, isLogged, register",
+                    required = true, example = "login", in = ParameterIn.QUERY),
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = """
+                                    { "0": 5, "50": 20, "95": 120, "99": 400, "100": 2000 }"""))),
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Распределение установлено"),
+                    @ApiResponse(responseCode = "400", description = "Ошибка валидации таблицы")})
+    @PostMapping("/setLatency/empirical")
+    public ResponseEntity<Map<String, Object>> setEmpiricalLatency(@RequestParam String type,
+                                                                   @RequestBody Map<String, Double> percentiles) {
+        try {
+            return apply(type, LatencyProfile.fromSpec(Map.of("distribution", "empirical", "percentiles", percentiles)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // 4️⃣ Получить текущие модели ёмкости
+    @Operation(summary = "Текущие модели ёмкости",
+            description = "Возвращает число обработчиков, глубину очереди и текущую загрузку для каждого запроса",
+            responses = @ApiResponse(
+                    responseCode = "200",
+                    description = "Модели ёмкости",
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = """
+                                    {
+                                      "login": { "workers": 8, "queue": 100, "rejectStatus": 503, "busy": 8, "queued": 42, "rejected": 0 },
+                                      "logout": { "workers": "unlimited" }
+                                    }"""))))
+    @GetMapping("/capacity")
+    public ResponseEntity<Map<String, Object>> getCapacity() {
+        return ResponseEntity.ok(capacity.describe());
+    }
+
+    // 5️⃣ Ограничить ёмкость эмулируемого сервера
+    @Operation(summary = "Установка ёмкости эмулируемого сервера",
+            description = "Запрос занимает один из workers обработчиков на время своей задержки (время обслуживания). " +
+                    "Когда все обработчики заняты, запросы ждут в очереди на queue мест, а при заполненной очереди " +
+                    "получают ответ rejectStatus (503 или 429). workers=0 снимает ограничение",
+            parameters = {
+                    @Parameter(name = "type", description = "Типы запросов: login, logout, loggedUser, isLogged, register",
+                            required = true, example = "login", in = ParameterIn.QUERY),
+                    @Parameter(name = "workers", description = "Число обработчиков, 0 — без ограничения",
+                            required = true, example = "8", in = ParameterIn.QUERY),
+                    @Parameter(name = "queue", description = "Глубина очереди", example = "100", in = ParameterIn.QUERY),
+                    @Parameter(name = "rejectStatus", description = "Код ответа при переполнении: 503 или 429",
+                            example = "503", in = ParameterIn.QUERY)},
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Ёмкость установлена"),
+                    @ApiResponse(responseCode = "400", description = "Ошибка валидации входных параметров",
+                            content = @Content(mediaType = "application/json",
+                                    examples = @ExampleObject(value = """
+                                            {
+                                              "error": "Код отказа должен быть 429 или 503"
+                                            }""")))})
+    @PostMapping("/setCapacity")
+    public ResponseEntity<Map<String, Object>> setCapacity(@RequestParam String type,
+                                                           @RequestParam int workers,
+                                                           @RequestParam(defaultValue = "0") int queue,
+                                                           @RequestParam(defaultValue = "503") int rejectStatus) {
+        Optional<AuthEndpoint> endpoint = AuthEndpoint.fromKey(type);
+        if (endpoint.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Неверный тип запроса."));
+        }
+        try {
+            capacity.set(endpoint.get(), workers == 0 ? CapacityModel.UNLIMITED : new CapacityModel(workers, queue, rejectStatus));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("message", "Установлена ёмкость для запроса " + type);
+        response.put("capacity", capacity.describe());
+        return ResponseEntity.ok(response);
+    }
+
+    // 6️⃣ Запустить сценарий изменения задержек
+    @Operation(summary = "Запуск сценария задержек",
+            description = "Для каждого запроса задаётся последовательность шагов длительностью duration: профиль latency, " +
+                    "линейный переход rampTo (мс) от предыдущей задержки, доля ошибок errorRate (0..1) с кодом errorStatus. " +
+                    "Заглушка сама применяет шаги по времени, изменения по всем запросам видны одновременно. " +
+                    "Новый сценарий прерывает текущий",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = """
+                                    {
+                                      "loop": false,
+                                      "timelines": {
+                                        "login": [
+                                          { "duration": "5m", "latency": { "distribution": "fixed", "millis": 50 } },
+                                          { "duration": "1m", "rampTo": 2000 },
+                                          { "duration": "30s", "errorRate": 1.0, "errorStatus": 503 },
+                                          { "duration": "1m", "latency": { "distribution": "fixed", "millis": 50 } }
+                                        ]
+                                      }
+                                    }"""))),
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Сценарий запущен"),
+                    @ApiResponse(responseCode = "400", description = "Ошибка в описании сценария")})
+    @PostMapping("/scenario")
+    public ResponseEntity<Map<String, Object>> startScenario(@RequestBody Map<String, Object> body) {
+        try {
+            scenarios.start(LatencyScenario.parse(body));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        return ResponseEntity.ok(scenarios.describe());
+    }
+
+    // 7️⃣ Получить состояние сценария
+    @Operation(summary = "Состояние сценария задержек",
+            description = "Состояние (none, running, stopped, finished), прошедшее время и текущий шаг по каждому запросу",
+            responses = @ApiResponse(
+                    responseCode = "200",
+                    description = "Состояние сценария",
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = """
+                                    {
+                                      "state": "running",
+                                      "loop": false,
+                                      "durationMillis": 390000,
+                                      "elapsedMillis": 312000,
+                                      "steps": { "login": "2/4" }
+                                    }"""))))
+    @GetMapping("/scenario")
+    public ResponseEntity<Map<String, Object>> getScenario() {
+        return ResponseEntity.ok(scenarios.describe());
+    }
+
+    // 8️⃣ Остановить сценарий
+    @Operation(summary = "Остановка сценария задержек",
+            description = "Останавливает сценарий. По умолчанию последние применённые задержки и доли ошибок сохраняются, " +
+                    "с reset=true запросам сценария возвращаются значения, которые были до его запуска",
+            parameters = @Parameter(name = "reset", description = "Вернуть значения, которые были до запуска сценария",
+                    example = "true", in = ParameterIn.QUERY),
+            responses = @ApiResponse(responseCode = "200", description = "Сценарий остановлен"))
+    @DeleteMapping("/scenario")
+    public ResponseEntity<Map<String, Object>> stopScenario(@RequestParam(defaultValue = "false") boolean reset) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        if (reset) {
+            response.put("message", scenarios.reset() ? "Сценарий остановлен, задержки возвращены" : "Сценарии не запускались");
+        } else {
+            response.put("message", scenarios.stop() ? "Сценарий остановлен" : "Сценарий не выполняется");
+        }
+        response.put("latency", latency.current().describe());
+        return ResponseEntity.ok(response);
+    }
+
+    // 9️⃣ Получить правила задержки
+    @Operation(summary = "Текущие правила задержки",
+            description = "Правила задержки для части пользователей или запросов в порядке применения и число их срабатываний",
+            responses = @ApiResponse(
+                    responseCode = "200",
+                    description = "Правила задержки",
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = """
+                                    {
+                                      "rules": [
+                                        { "name": "slow-user1", "endpoints": ["login"], "username": "user1*",
+                                          "latency": { "distribution": "fixed", "millis": 2000 }, "hits": 1520 }
+                                      ]
+                                    }"""))))
+    @GetMapping("/rules")
+    public ResponseEntity<Map<String, Object>> getRules() {
+        return ResponseEntity.ok(Map.of("rules", rules.describe()));
+    }
+
+    // 🔟 Заменить правила задержки
+    @Operation(summary = "Установка правил задержки",
+            description = "Заменяет все правила. Условия правила: endpoints, username (логин или префикс user1*), " +
+                    "userPercent (доля пользователей по хешу логина), header и headerValue. Действие: профиль latency " +
+                    "и/или доля ошибок errorRate с кодом errorStatus вместо настроек эндпоинта. " +
+                    "Из подошедших правил действует первое по порядку",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = """
+                                    {
+                                      "rules": [
+                                        { "name": "slow-user1", "endpoints": ["login"], "username": "user1*",
+                                          "latency": { "distribution": "fixed", "millis": 2000 } },
+                                        { "name": "cohort-5", "userPercent": 5, "errorRate": 0.5, "errorStatus": 503 },
+                                        { "name": "test-run", "header": "X-Test-Run", "headerValue": "run-42",
+                                          "latency": { "distribution": "lognormal", "median": 100, "p99": 1500 } }
+                                      ]
+                                    }"""))),
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Правила установлены"),
+                    @ApiResponse(responseCode = "400", description = "Ошибка в описании правил",
+                            content = @Content(mediaType = "application/json",
+                                    examples = @ExampleObject(value = """
+                                            {
+                                              "error": "Звёздочка допускается только в конце username: u*1"
+                                            }""")))})
+    @PostMapping("/rules")
+    public ResponseEntity<Map<String, Object>> setRules(@RequestBody Map<String, Object> body) {
+        if (!(body.get("rules") instanceof List<?> specs)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Не указан список rules"));
+        }
+        try {
+            rules.replace(LatencyRule.parseAll(specs));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        return ResponseEntity.ok(Map.of("rules", rules.describe()));
+    }
+
+    // 1️⃣1️⃣ Удалить правила задержки
+    @Operation(summary = "Удаление правил задержки",
+            description = "Удаляет все правила, запросы снова получают задержку эндпоинта",
+            responses = @ApiResponse(responseCode = "200", description = "Правила удалены"))
+    @DeleteMapping("/rules")
+    public ResponseEntity<Map<String, Object>> deleteRules() {
+        rules.replace(List.of());
+        return ResponseEntity.ok(Map.of("rules", rules.describe()));
+    }
+
+    private ResponseEntity<Map<String, Object>> apply(String type, LatencyProfile profile) {
+        Optional<AuthEndpoint> endpoint = AuthEndpoint.fromKey(type);
+        if (endpoint.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Неверный тип запроса."));
+        }
+        latency.set(endpoint.get(), profile);
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("message", "Установлено распределение задержки для запроса " + type);
+        response.put("latency", latency.current().describe());
+        return ResponseEntity.ok(response);
+    }
+}
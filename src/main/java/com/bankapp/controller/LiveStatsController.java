@@ -0,0 +1,48 @@
+package com.bankapp.controller;
+
+import com.bankapp.service.LiveStatsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+// Поток отдаётся через SseEmitter, поэтому только в servlet-приложении
+@RestController
+@RequestMapping("/auth")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class LiveStatsController {
+    private final LiveStatsService liveStats;
+
+    public LiveStatsController(LiveStatsService liveStats) {
+        this.liveStats = liveStats;
+    }
+
+    // 1️⃣ Подписаться на живой поток статистики
+    @Operation(summary = "Живой поток статистики запросов",
+            description = "Server-Sent Events: раз в секунду событие snapshot с числом запросов, запросами в секунду, " +
+                    "ошибками (коды от 400) и p50/p99/max времени ответа в миллисекундах по каждому эндпоинту. " +
+                    "Медленный подписчик пропускает снимки и получает последний",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Поток снимков",
+                            content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE,
+                                    examples = @ExampleObject(value = """
+                                            event:snapshot
+                                            data:{"timestamp":"2024-07-01T12:00:01.000Z","intervalMillis":1000,"endpoints":{"login":{"count":1520,"rps":1519.8,"errors":12,"p50Ms":31.2,"p99Ms":790.5,"maxMs":1204.2}}}
+                                            """))),
+                    @ApiResponse(responseCode = "503", description = "Достигнут предел bankapp.live.max-subscribers")})
+    @GetMapping(value = "/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> live() {
+        SseEmitter emitter = liveStats.subscribe();
+        return emitter == null ? ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build() : ResponseEntity.ok(emitter);
+    }
+}
@@ -0,0 +1,160 @@
+package com.bankapp.journal;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Двоичный формат журнала запросов.
+ * <p>
+ * Заголовок: магическое число, версия, размер записи, число запросов и их имена (длина u8 и ASCII) —
+ * номер запроса в записи указывает на имя из заголовка. Затем записи по {@value #RECORD_BYTES} байт:
+ * время прихода запроса (мкс от эпохи), хеш логина, заданная задержка (мкс), время до начала формирования
+ * ответа (мкс, задержка вместе с очередью), время формирования ответа (нс), код ответа (u16), номер запроса (u8).
+ * <p>
+ * Файл только дописывается. Неполная запись в конце (процесс остановлен посреди записи) при чтении пропускается,
+ * а при следующем открытии на дозапись отрезается.
+ */
+public final class JournalFile {
+    public static final int RECORD_BYTES = 32;
+
+    private static final long MAGIC = 0x414D4A4F55524E31L; // "AMJOURN1"
+    private static final int VERSION = 1;
+
+    private JournalFile() {
+    }
+
+    public record Entry(long timestampMicros, String endpoint, long userHash, int delayMicros, int waitMicros,
+                        int processingNanos, int status) {
+    }
+
+    /**
+     * Открывает журнал на дозапись: новый файл получает заголовок, у существующего проверяется, что он записан
+     * для тех же запросов.
+     */
+    static FileChannel openForAppend(Path path, List<String> endpoints) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        byte[] header = header(endpoints);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            long size = channel.size();
+            if (size == 0) {
+                ByteBuffer buffer = ByteBuffer.wrap(header);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                return channel;
+            }
+            ByteBuffer existing = ByteBuffer.allocate(header.length);
+            while (existing.hasRemaining() && channel.read(existing, existing.position()) > 0) {
+                // читаем заголовок целиком
+            }
+            if (existing.hasRemaining() || !existing.flip().equals(ByteBuffer.wrap(header))) {
+                throw new IOException("Файл " + path + " не является журналом запросов этой версии заглушки");
+            }
+            long records = (size - header.length) / RECORD_BYTES;
+            channel.truncate(header.length + records * RECORD_BYTES);
+            channel.position(header.length + records * RECORD_BYTES);
+            return channel;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Читает журнал и передаёт каждую запись в {@code sink}, возвращает число записей.
+     */
+    public static long read(Path path, Consumer<Entry> sink) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            if (in.readLong() != MAGIC) {
+                throw new IOException("Файл не является журналом запросов: " + path);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Неподдерживаемая версия журнала: " + version);
+            }
+            int recordBytes = in.readInt();
+            List<String> endpoints = new ArrayList<>();
+            int count = in.readUnsignedByte();
+            for (int i = 0; i < count; i++) {
+                byte[] name = new byte[in.readUnsignedByte()];
+                in.readFully(name);
+                endpoints.add(new String(name, StandardCharsets.US_ASCII));
+            }
+
+            byte[] record = new byte[recordBytes];
+            ByteBuffer buffer = ByteBuffer.wrap(record);
+            long records = 0;
+            while (true) {
+                try {
+                    in.readFully(record);
+                } catch (EOFException e) {
+                    return records;
+                }
+                buffer.clear();
+                long timestamp = buffer.getLong();
+                long userHash = buffer.getLong();
+                int delay = buffer.getInt();
+                int wait = buffer.getInt();
+                int processing = buffer.getInt();
+                int status = buffer.getShort() & 0xFFFF;
+                int endpoint = buffer.get() & 0xFF;
+                sink.accept(new Entry(timestamp, endpoint < endpoints.size() ? endpoints.get(endpoint) : "#" + endpoint,
+                        userHash, delay, wait, processing, status));
+                records++;
+            }
+        }
+    }
+
+    /**
+     * Выгружает журнал в CSV, возвращает число записей.
+     */
+    public static long exportCsv(Path journal, Path csv) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(csv))) {
+            out.println("timestamp,endpoint,user_hash,delay_ms,wait_ms,processing_us,status");
+            return read(journal, entry -> out.println(String.format(Locale.ROOT, "%s,%s,%016x,%.3f,%.3f,%.3f,%d",
+                    Instant.EPOCH.plusNanos(entry.timestampMicros() * 1000), entry.endpoint(), entry.userHash(),
+                    entry.delayMicros() / 1000.0, entry.waitMicros() / 1000.0, entry.processingNanos() / 1000.0,
+                    entry.status())));
+        }
+    }
+
+    static void encode(ByteBuffer buffer, long timestampMicros, long userHash, long timings, long outcome) {
+        buffer.putLong(timestampMicros)
+                .putLong(userHash)
+                .putLong(timings)
+                .putInt((int) (outcome >>> 32))
+                .putShort((short) (outcome >>> 16))
+                .put((byte) outcome)
+                .put((byte) 0);
+    }
+
+    private static byte[] header(List<String> endpoints) {
+        ByteBuffer buffer = ByteBuffer.allocate(8 + 4 + 4 + 1 + endpoints.size() * 256);
+        buffer.putLong(MAGIC).putInt(VERSION).putInt(RECORD_BYTES).put((byte) endpoints.size());
+        for (String endpoint : endpoints) {
+            byte[] name = endpoint.getBytes(StandardCharsets.US_ASCII);
+            buffer.put((byte) name.length).put(name);
+        }
+        byte[] header = new byte[buffer.position()];
+        buffer.flip().get(header);
+        return header;
+    }
+}
@@ -0,0 +1,90 @@
+package com.bankapp.journal;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Кольцевой буфер записей журнала фиксированного размера: много писателей, один читатель.
+ * <p>
+ * Писатель занимает номер записи CAS-циклом по хвосту, заполняет ячейку и публикует её, записывая в
+ * отметку ячейки номер записи + 1. Читатель идёт по номерам подряд и останавливается на первой
+ * неопубликованной ячейке. Если буфер полон, запись отбрасывается и учитывается в {@link #getDropped()} —
+ * писатель никогда не ждёт читателя.
+ */
+final class JournalRing {
+    static final int FIELDS = 4;
+
+    private static final VarHandle MARKS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final int capacity;
+    private final int mask;
+    private final long[] slots;
+    private final long[] marks;
+    private final AtomicLong tail = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+    private volatile long head;
+
+    JournalRing(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Размер буфера журнала должен быть степенью двойки: " + capacity);
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.slots = new long[capacity * FIELDS];
+        this.marks = new long[capacity];
+    }
+
+    interface Sink {
+        void accept(long a, long b, long c, long d);
+    }
+
+    // false — буфер полон, запись отброшена
+    boolean offer(long a, long b, long c, long d) {
+        long sequence;
+        do {
+            sequence = tail.get();
+            if (sequence - head >= capacity) {
+                dropped.increment();
+                return false;
+            }
+        } while (!tail.compareAndSet(sequence, sequence + 1));
+
+        int index = (int) (sequence & mask);
+        int base = index * FIELDS;
+        slots[base] = a;
+        slots[base + 1] = b;
+        slots[base + 2] = c;
+        slots[base + 3] = d;
+        MARKS.setRelease(marks, index, sequence + 1);
+        return true;
+    }
+
+    // Только для потока записи: передаёт до max опубликованных записей по порядку и освобождает их ячейки
+    int drain(Sink sink, int max) {
+        long next = head;
+        int count = 0;
+        while (count < max) {
+            int index = (int) (next & mask);
+            if ((long) MARKS.getAcquire(marks, index) != next + 1) {
+                break;
+            }
+            int base = index * FIELDS;
+            sink.accept(slots[base], slots[base + 1], slots[base + 2], slots[base + 3]);
+            next++;
+            count++;
+        }
+        head = next;
+        return count;
+    }
+
+    long getDropped() {
+        return dropped.sum();
+    }
+
+    // Записи, ожидающие потока записи
+    long getBacklog() {
+        return Math.max(0, tail.get() - head);
+    }
+}
@@ -0,0 +1,217 @@
+package com.bankapp.journal;
+
+import com.bankapp.latency.InjectedFaultException;
+import com.bankapp.model.AuthEndpoint;
+import com.bankapp.service.AuthMetricsService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Журнал обслуженных запросов для разбора нагрузочного теста.
+ * <p>
+ * Файл задаётся свойством {@code bankapp.journal.path}; если оно пустое, журнал отключён и запросы его не касаются.
+ * Запрос кладёт запись фиксированного размера в кольцевой буфер без блокировок ({@link JournalRing}),
+ * фоновый поток раз в {@code bankapp.journal.flush-interval} переносит записи в файл ({@link JournalFile}).
+ * Если поток записи не успевает и буфер заполнен, запись отбрасывается — запрос не ждёт диска.
+ * Число записанных и отброшенных записей — счётчики {@code bankapp.journal.records} и {@code bankapp.journal.dropped}.
+ * <p>
+ * Логин в журнал не пишется, только его хеш ({@link #hash(String)}), — по нему можно сгруппировать запросы
+ * одного пользователя или найти запросы известного логина.
+ */
+@Component
+public class RequestJournal {
+    private static final Logger log = LoggerFactory.getLogger(RequestJournal.class);
+
+    private static final int WRITE_BATCH = 4096;
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final Path path;
+    private final JournalRing ring;
+    private final long baseEpochMicros;
+    private final long baseNanos;
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong lost = new AtomicLong();
+    private FileChannel channel;
+    private ByteBuffer buffer;
+    private ScheduledExecutorService writer;
+
+    public RequestJournal(@Value("${bankapp.journal.path:}") String path,
+                          @Value("${bankapp.journal.buffer-records:65536}") int bufferRecords,
+                          @Value("${bankapp.journal.flush-interval:100ms}") Duration flushInterval,
+                          AuthMetricsService authMetrics) throws IOException {
+        this.path = path.isBlank() ? null : Path.of(path);
+        Instant now = Instant.now();
+        this.baseEpochMicros = now.getEpochSecond() * 1_000_000 + now.getNano() / 1000;
+        this.baseNanos = System.nanoTime();
+        if (this.path == null) {
+            this.ring = null;
+            return;
+        }
+
+        this.ring = new JournalRing(bufferRecords);
+        this.channel = JournalFile.openForAppend(this.path,
+                Arrays.stream(AuthEndpoint.values()).map(AuthEndpoint::getKey).toList());
+        this.buffer = ByteBuffer.allocateDirect(WRITE_BATCH * JournalFile.RECORD_BYTES);
+        this.writer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "request-journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.scheduleWithFixedDelay(this::flush, flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+
+        authMetrics.registerCounter("bankapp.journal.records", "Записи, перенесённые в журнал запросов",
+                written, AtomicLong::get);
+        authMetrics.registerCounter("bankapp.journal.dropped", "Записи журнала, отброшенные при заполненном буфере или ошибке записи",
+                this, RequestJournal::getDropped);
+        authMetrics.registerGauge("bankapp.journal.backlog", "Записи журнала, ожидающие записи в файл",
+                ring, JournalRing::getBacklog);
+        log.info("Журнал запросов: {}, буфер {} записей", this.path, bufferRecords);
+    }
+
+    public boolean isEnabled() {
+        return ring != null;
+    }
+
+    /**
+     * Оборачивает формирование ответа: запись о запросе публикуется, когда ответ сформирован.
+     * Время прихода запроса — момент вызова.
+     */
+    public <T extends ResponseEntity<?>> Entry<T> begin(AuthEndpoint endpoint, String username, long delayMillis,
+                                                        Supplier<T> action) {
+        return new Entry<>(endpoint, hash(username), System.nanoTime(), delayMillis, action);
+    }
+
+    // Ожидает потока записи
+    public long getBacklog() {
+        return ring == null ? 0 : ring.getBacklog();
+    }
+
+    public long getDropped() {
+        return ring == null ? 0 : ring.getDropped() + lost.get();
+    }
+
+    // 64-битный FNV-1a по символам логина, 0 — логин неизвестен
+    public static long hash(String username) {
+        if (username == null) {
+            return 0;
+        }
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < username.length(); i++) {
+            hash ^= username.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private void publish(AuthEndpoint endpoint, long userHash, long arrivalNanos, long delayMillis,
+                         long waitNanos, long processingNanos, int status) {
+        long timestamp = baseEpochMicros + (arrivalNanos - baseNanos) / 1000;
+        long timings = (long) clamp(delayMillis * 1000) << 32 | clamp(waitNanos / 1000) & 0xFFFFFFFFL;
+        long outcome = (long) clamp(processingNanos) << 32 | (status & 0xFFFFL) << 16 | endpoint.ordinal();
+        ring.offer(timestamp, userHash, timings, outcome);
+    }
+
+    private static int clamp(long value) {
+        return (int) Math.min(Math.max(value, 0), Integer.MAX_VALUE);
+    }
+
+    // Только поток записи или остановка после него: переносит всё опубликованное в файл
+    private void flush() {
+        int count;
+        while ((count = ring.drain(this::encode, WRITE_BATCH)) > 0) {
+            buffer.flip();
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                written.addAndGet(count);
+            } catch (IOException e) {
+                lost.addAndGet(count);
+                log.warn("Ошибка записи журнала запросов {}", path, e);
+            }
+            buffer.clear();
+        }
+    }
+
+    private void encode(long timestamp, long userHash, long timings, long outcome) {
+        JournalFile.encode(buffer, timestamp, userHash, timings, outcome);
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException, InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        writer.shutdown();
+        if (writer.awaitTermination(5, TimeUnit.SECONDS)) {
+            flush();
+        }
+        channel.force(false);
+        channel.close();
+    }
+
+    /**
+     * Формирование ответа с записью в журнал. Если обёртка так и не вызвана, потому что запрос отклонён
+     * моделью ёмкости, запись публикует {@link #rejected(int)}.
+     */
+    public final class Entry<T extends ResponseEntity<?>> implements Supplier<T> {
+        private final AuthEndpoint endpoint;
+        private final long userHash;
+        private final long arrivalNanos;
+        private final long delayMillis;
+        private final Supplier<T> action;
+        // Пишется до завершения future ответа, поэтому виден после проверки его состояния
+        private boolean started;
+
+        private Entry(AuthEndpoint endpoint, long userHash, long arrivalNanos, long delayMillis, Supplier<T> action) {
+            this.endpoint = endpoint;
+            this.userHash = userHash;
+            this.arrivalNanos = arrivalNanos;
+            this.delayMillis = delayMillis;
+            this.action = action;
+        }
+
+        @Override
+        public T get() {
+            started = true;
+            long start = System.nanoTime();
+            int status = 500;
+            try {
+                T response = action.get();
+                status = response.getStatusCode().value();
+                return response;
+            } catch (InjectedFaultException e) {
+                status = e.getStatus();
+                throw e;
+            } finally {
+                publish(endpoint, userHash, arrivalNanos, delayMillis, start - arrivalNanos, System.nanoTime() - start, status);
+            }
+        }
+
+        public boolean isStarted() {
+            return started;
+        }
+
+        public void rejected(int status) {
+            publish(endpoint, userHash, arrivalNanos, delayMillis, System.nanoTime() - arrivalNanos, 0, status);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.bankapp.latency;
+
+/**
+ * Запрос отклонён эмуляцией ёмкости: все обработчики заняты и очередь заполнена.
+ */
+public class CapacityExceededException extends RuntimeException {
+    private final int status;
+
+    public CapacityExceededException(int status) {
+        super("Сервер перегружен, повторите запрос позже");
+        this.status = status;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+}
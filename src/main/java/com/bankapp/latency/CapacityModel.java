@@ -0,0 +1,134 @@
+package com.bankapp.latency;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Эмуляция ограниченной ёмкости сервера: {@code workers} обработчиков и очередь на {@code queueDepth} запросов.
+ * <p>
+ * Запрос занимает обработчик на время своей задержки (время обслуживания). Пока все обработчики заняты,
+ * запросы ждут в очереди, и наблюдаемая задержка растёт вместе с нагрузкой; при заполненной очереди запрос
+ * отклоняется с кодом {@code rejectStatus}. Обработчики виртуальные — это счётчик, а не потоки.
+ * <p>
+ * Приём и очередь без блокировок: место в системе занимается CAS-циклом по одному счётчику,
+ * ожидающие запросы лежат в {@link ConcurrentLinkedQueue}.
+ */
+public final class CapacityModel {
+
+    // Без ограничения ёмкости: запросы обслуживаются сразу
+    public static final CapacityModel UNLIMITED = new CapacityModel(0, 0, 503);
+
+    public static final int MAX_SIZE = 1_000_000;
+
+    private final int workers;
+    private final int queueDepth;
+    private final int rejectStatus;
+
+    // Запросы в системе: на обслуживании и в очереди
+    private final AtomicInteger inSystem = new AtomicInteger();
+    private final AtomicInteger busy = new AtomicInteger();
+    private final ConcurrentLinkedQueue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+    private final LongAdder rejected = new LongAdder();
+
+    public CapacityModel(int workers, int queueDepth, int rejectStatus) {
+        if (workers < 0 || workers > MAX_SIZE || queueDepth < 0 || queueDepth > MAX_SIZE) {
+            throw new IllegalArgumentException("workers и queue должны быть от 0 до " + MAX_SIZE);
+        }
+        if (rejectStatus != 429 && rejectStatus != 503) {
+            throw new IllegalArgumentException("Код отказа должен быть 429 или 503");
+        }
+        this.workers = workers;
+        this.queueDepth = queueDepth;
+        this.rejectStatus = rejectStatus;
+    }
+
+    public boolean isUnlimited() {
+        return workers == 0;
+    }
+
+    public int getRejectStatus() {
+        return rejectStatus;
+    }
+
+    /**
+     * Занимает место в системе. {@code false} — обработчики и очередь заполнены, запрос нужно отклонить.
+     */
+    public boolean tryAdmit() {
+        int limit = workers + queueDepth;
+        while (true) {
+            int current = inSystem.get();
+            if (current >= limit) {
+                rejected.increment();
+                return false;
+            }
+            if (inSystem.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Ставит принятый запрос в очередь. {@code start} выполняется, когда запросу достаётся обработчик,
+     * и должен вызвать {@link #release()} по окончании обслуживания.
+     */
+    public void enqueue(Runnable start) {
+        waiting.offer(start);
+        drain();
+    }
+
+    // Освобождает обработчик и отдаёт его следующему запросу из очереди
+    public void release() {
+        busy.decrementAndGet();
+        inSystem.decrementAndGet();
+        drain();
+    }
+
+    private void drain() {
+        while (!waiting.isEmpty()) {
+            int current = busy.get();
+            if (current >= workers) {
+                return;
+            }
+            if (!busy.compareAndSet(current, current + 1)) {
+                continue;
+            }
+            Runnable next = waiting.poll();
+            if (next == null) {
+                // Запрос забрал другой поток
+                busy.decrementAndGet();
+            } else {
+                next.run();
+            }
+        }
+    }
+
+    public int getBusyWorkers() {
+        return busy.get();
+    }
+
+    public int getQueued() {
+        return Math.max(0, inSystem.get() - busy.get());
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public Map<String, Object> describe() {
+        Map<String, Object> description = new LinkedHashMap<>();
+        if (isUnlimited()) {
+            description.put("workers", "unlimited");
+            return description;
+        }
+        description.put("workers", workers);
+        description.put("queue", queueDepth);
+        description.put("rejectStatus", rejectStatus);
+        description.put("busy", getBusyWorkers());
+        description.put("queued", getQueued());
+        description.put("rejected", getRejected());
+        return description;
+    }
+}
@@ -0,0 +1,65 @@
+package com.bankapp.latency;
+
+import com.bankapp.model.AuthEndpoint;
+import com.bankapp.service.AuthMetricsService;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Текущие модели ёмкости по запросам. По умолчанию ёмкость не ограничена.
+ * <p>
+ * Новая модель начинает с пустой очереди; запросы, принятые прежней моделью, дообслуживаются ею.
+ * <p>
+ * Отказы считаются в {@code bankapp.auth.capacity.rejected{endpoint}}: при замене модели её отказы переносятся
+ * в накопленную сумму эндпоинта, поэтому счётчик не убывает.
+ */
+@Component
+public class CapacitySettings {
+
+    private volatile CapacityModel[] models = new CapacityModel[AuthEndpoint.values().length];
+    // Отказы заменённых моделей по эндпоинтам
+    private final LongAdder[] retiredRejections = new LongAdder[AuthEndpoint.values().length];
+
+    public CapacitySettings(AuthMetricsService authMetrics) {
+        Arrays.fill(models, CapacityModel.UNLIMITED);
+        Arrays.setAll(retiredRejections, i -> new LongAdder());
+        for (AuthEndpoint endpoint : AuthEndpoint.values()) {
+            Tags tags = Tags.of("endpoint", endpoint.getKey());
+            authMetrics.registerGauge("bankapp.auth.capacity.queued", "Запросы в очереди эмулируемого сервера",
+                    tags, this, s -> s.get(endpoint).getQueued());
+            authMetrics.registerGauge("bankapp.auth.capacity.busy", "Занятые обработчики эмулируемого сервера",
+                    tags, this, s -> s.get(endpoint).getBusyWorkers());
+            authMetrics.registerCounter("bankapp.auth.capacity.rejected", "Запросы, отклонённые эмулируемым сервером",
+                    tags, this, s -> s.getRejected(endpoint));
+        }
+    }
+
+    public CapacityModel get(AuthEndpoint endpoint) {
+        return models[endpoint.ordinal()];
+    }
+
+    public synchronized void set(AuthEndpoint endpoint, CapacityModel model) {
+        CapacityModel[] copy = models.clone();
+        retiredRejections[endpoint.ordinal()].add(copy[endpoint.ordinal()].getRejected());
+        copy[endpoint.ordinal()] = model;
+        models = copy;
+    }
+
+    // Все отказы эндпоинта, включая отказы заменённых моделей; под той же блокировкой, что замена, чтобы сумма не скакала
+    public synchronized long getRejected(AuthEndpoint endpoint) {
+        return retiredRejections[endpoint.ordinal()].sum() + get(endpoint).getRejected();
+    }
+
+    public Map<String, Object> describe() {
+        Map<String, Object> description = new LinkedHashMap<>();
+        for (AuthEndpoint endpoint : AuthEndpoint.values()) {
+            description.put(endpoint.getKey(), get(endpoint).describe());
+        }
+        return description;
+    }
+}
@@ -0,0 +1,25 @@
+package com.bankapp.latency;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Доля запросов, на которые заглушка отвечает ошибкой {@code status} вместо обычного ответа.
+ */
+public record Fault(double rate, int status) {
+
+    public static final Fault NONE = new Fault(0, 503);
+
+    public Fault {
+        if (!(rate >= 0 && rate <= 1)) {
+            throw new IllegalArgumentException("Доля ошибок должна быть от 0 до 1");
+        }
+        if (status < 400 || status > 599) {
+            throw new IllegalArgumentException("Код ошибки должен быть от 400 до 599");
+        }
+    }
+
+    // Отвечать ли ошибкой на очередной запрос
+    public boolean trigger() {
+        return rate > 0 && (rate >= 1 || ThreadLocalRandom.current().nextDouble() < rate);
+    }
+}
@@ -0,0 +1,17 @@
+package com.bankapp.latency;
+
+/**
+ * Ошибка, которую заглушка возвращает по заданной доле ошибок ({@link Fault}).
+ */
+public class InjectedFaultException extends RuntimeException {
+    private final int status;
+
+    public InjectedFaultException(int status) {
+        super("Эмулируемая ошибка сервера");
+        this.status = status;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,292 @@
+package com.bankapp.latency;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Распределение задержки ответа в миллисекундах.
+ * <p>
+ * Профили неизменяемы, параметры проверяются и предвычисляются при создании,
+ * поэтому {@link #sampleMillis()} не выделяет память и не берёт блокировок —
+ * он вызывается на каждый запрос.
+ */
+public sealed interface LatencyProfile {
+
+    LatencyProfile NONE = new Fixed(0);
+
+    // Случайная задержка для очередного запроса
+    long sampleMillis();
+
+    // Среднее значение распределения, публикуется в gauge bankapp.auth.timeout
+    double meanMillis();
+
+    // Описание профиля для ответов API
+    Map<String, Object> describe();
+
+    /**
+     * Профиль по описанию в том же виде, что возвращает {@link #describe()}:
+     * {@code distribution} и параметры распределения, для {@code empirical} — таблица {@code percentiles}.
+     * Значения могут быть числами или строками.
+     */
+    static LatencyProfile fromSpec(Map<String, ?> spec) {
+        Object distribution = spec.get("distribution");
+        if (distribution == null) {
+            throw new IllegalArgumentException("Не указан параметр distribution");
+        }
+        return switch (distribution.toString()) {
+            case "fixed" -> new Fixed(Math.round(number(spec, "millis")));
+            case "uniform" -> new Uniform(Math.round(number(spec, "min")), Math.round(number(spec, "max")));
+            case "normal" -> new Normal(number(spec, "mean"), number(spec, "stddev"));
+            case "lognormal" -> new LogNormal(number(spec, "median"), number(spec, "p99"));
+            case "empirical" -> {
+                if (!(spec.get("percentiles") instanceof Map<?, ?> percentiles)) {
+                    throw new IllegalArgumentException("Не указана таблица percentiles");
+                }
+                SortedMap<Double, Double> table = new TreeMap<>();
+                percentiles.forEach((percentile, value) ->
+                        table.put(toDouble(String.valueOf(percentile), percentile), toDouble(String.valueOf(percentile), value)));
+                yield Empirical.of(table);
+            }
+            default -> throw new IllegalArgumentException(
+                    "Неверное распределение. Допустимые значения: fixed, uniform, normal, lognormal, empirical");
+        };
+    }
+
+    /** Постоянная задержка. */
+    record Fixed(long millis) implements LatencyProfile {
+        public Fixed {
+            requireNonNegative("millis", millis);
+        }
+
+        @Override
+        public long sampleMillis() {
+            return millis;
+        }
+
+        @Override
+        public double meanMillis() {
+            return millis;
+        }
+
+        @Override
+        public Map<String, Object> describe() {
+            return describeAs("fixed", "millis", millis);
+        }
+    }
+
+    /** Равномерное распределение на отрезке [min, max]. */
+    record Uniform(long min, long max) implements LatencyProfile {
+        public Uniform {
+            requireNonNegative("min", min);
+            if (max < min) {
+                throw new IllegalArgumentException("max должен быть не меньше min");
+            }
+        }
+
+        @Override
+        public long sampleMillis() {
+            return min == max ? min : ThreadLocalRandom.current().nextLong(min, max + 1);
+        }
+
+        @Override
+        public double meanMillis() {
+            return (min + max) / 2.0;
+        }
+
+        @Override
+        public Map<String, Object> describe() {
+            return describeAs("uniform", "min", min, "max", max);
+        }
+    }
+
+    /** Нормальное распределение, отрицательные значения обрезаются до нуля. */
+    record Normal(double mean, double stddev) implements LatencyProfile {
+        public Normal {
+            requireNonNegative("mean", mean);
+            requireNonNegative("stddev", stddev);
+        }
+
+        @Override
+        public long sampleMillis() {
+            return Math.max(0L, Math.round(mean + stddev * ThreadLocalRandom.current().nextGaussian()));
+        }
+
+        @Override
+        public double meanMillis() {
+            return mean;
+        }
+
+        @Override
+        public Map<String, Object> describe() {
+            return describeAs("normal", "mean", mean, "stddev", stddev);
+        }
+    }
+
+    /**
+     * Логнормальное распределение, заданное медианой и 99-м перцентилем —
+     * типичная форма задержек реального сервера с длинным хвостом.
+     */
+    record LogNormal(double median, double p99, double mu, double sigma) implements LatencyProfile {
+        // Квантиль стандартного нормального распределения для 99%
+        private static final double Z_99 = 2.3263478740408408;
+
+        public LogNormal(double median, double p99) {
+            this(median, p99, Math.log(median), Math.log(p99 / median) / Z_99);
+        }
+
+        public LogNormal {
+            if (!(median > 0)) {
+                throw new IllegalArgumentException("median должен быть больше нуля");
+            }
+            if (!(p99 >= median)) {
+                throw new IllegalArgumentException("p99 должен быть не меньше median");
+            }
+        }
+
+        @Override
+        public long sampleMillis() {
+            return Math.round(Math.exp(mu + sigma * ThreadLocalRandom.current().nextGaussian()));
+        }
+
+        @Override
+        public double meanMillis() {
+            return Math.exp(mu + sigma * sigma / 2);
+        }
+
+        @Override
+        public Map<String, Object> describe() {
+            return describeAs("lognormal", "median", median, "p99", p99);
+        }
+    }
+
+    /**
+     * Эмпирическое распределение по таблице перцентилей, например {50: 20, 95: 120, 99: 400, 100: 2000}.
+     * Между точками значение интерполируется линейно. Ниже первой точки задержка равна её значению,
+     * выше последней — значению последней точки; чтобы задать минимум и максимум, передайте перцентили 0 и 100.
+     */
+    record Empirical(double[] percentiles, double[] values) implements LatencyProfile {
+        public Empirical {
+            // Копии до проверки: профиль живёт в общей неизменяемой таблице, и вызывающий не должен менять его позже
+            percentiles = percentiles.clone();
+            values = values.clone();
+            if (percentiles.length == 0 || percentiles.length != values.length) {
+                throw new IllegalArgumentException("Таблица перцентилей пуста или не согласована");
+            }
+            for (int i = 0; i < percentiles.length; i++) {
+                if (percentiles[i] < 0 || percentiles[i] > 100) {
+                    throw new IllegalArgumentException("Перцентиль должен быть в диапазоне 0..100: " + percentiles[i]);
+                }
+                requireNonNegative("value", values[i]);
+                if (i > 0 && (percentiles[i] <= percentiles[i - 1] || values[i] < values[i - 1])) {
+                    throw new IllegalArgumentException("Значения должны не убывать с ростом перцентиля");
+                }
+            }
+        }
+
+        // Копия, чтобы таблицу профиля нельзя было изменить снаружи
+        @Override
+        public double[] percentiles() {
+            return percentiles.clone();
+        }
+
+        @Override
+        public double[] values() {
+            return values.clone();
+        }
+
+        public static Empirical of(SortedMap<Double, Double> table) {
+            double[] percentiles = new double[table.size()];
+            double[] values = new double[table.size()];
+            int i = 0;
+            for (Map.Entry<Double, Double> entry : table.entrySet()) {
+                percentiles[i] = entry.getKey();
+                values[i] = entry.getValue();
+                i++;
+            }
+            return new Empirical(percentiles, values);
+        }
+
+        @Override
+        public long sampleMillis() {
+            return Math.round(valueAt(ThreadLocalRandom.current().nextDouble() * 100));
+        }
+
+        private double valueAt(double percentile) {
+            int idx = Arrays.binarySearch(percentiles, percentile);
+            if (idx >= 0) {
+                return values[idx];
+            }
+            int upper = -idx - 1;
+            if (upper == 0) {
+                return values[0];
+            }
+            if (upper == percentiles.length) {
+                return values[percentiles.length - 1];
+            }
+            int lower = upper - 1;
+            double fraction = (percentile - percentiles[lower]) / (percentiles[upper] - percentiles[lower]);
+            return values[lower] + fraction * (values[upper] - values[lower]);
+        }
+
+        @Override
+        public double meanMillis() {
+            int last = percentiles.length - 1;
+            // Площадь под кусочно-линейной обратной функцией распределения
+            double area = percentiles[0] * values[0] + (100 - percentiles[last]) * values[last];
+            for (int i = 0; i < last; i++) {
+                area += (percentiles[i + 1] - percentiles[i]) * (values[i] + values[i + 1]) / 2;
+            }
+            return area / 100;
+        }
+
+        @Override
+        public Map<String, Object> describe() {
+            Map<String, Object> table = new LinkedHashMap<>();
+            for (int i = 0; i < percentiles.length; i++) {
+                table.put(formatPercentile(percentiles[i]), values[i]);
+            }
+            return describeAs("empirical", "percentiles", table);
+        }
+
+        private static String formatPercentile(double percentile) {
+            return percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+        }
+    }
+
+    private static void requireNonNegative(String name, double value) {
+        if (!(value >= 0) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException(name + " должен быть неотрицательным числом");
+        }
+    }
+
+    private static double number(Map<String, ?> spec, String name) {
+        return toDouble(name, spec.get(name));
+    }
+
+    private static double toDouble(String name, Object value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Не указан параметр " + name);
+        }
+        if (value instanceof Number number) {
+            return number.doubleValue();
+        }
+        try {
+            return Double.parseDouble(value.toString());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Параметр " + name + " должен быть числом: " + value);
+        }
+    }
+
+    private static Map<String, Object> describeAs(String distribution, Object... params) {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("distribution", distribution);
+        for (int i = 0; i < params.length; i += 2) {
+            description.put((String) params[i], params[i + 1]);
+        }
+        return description;
+    }
+}
@@ -0,0 +1,237 @@
+package com.bankapp.latency;
+
+import com.bankapp.model.AuthEndpoint;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Правило задержки для части запросов: условия на пользователя и заголовок и профиль задержки или доля ошибок,
+ * которые заменяют настройки эндпоинта для подходящих запросов.
+ * <p>
+ * Условия (все заданные должны выполняться):
+ * <ul>
+ *     <li>{@code endpoints} — запросы, к которым применяется правило, по умолчанию все;</li>
+ *     <li>{@code username} — логин целиком или префикс со звёздочкой в конце: {@code user1*};</li>
+ *     <li>{@code userPercent} — доля пользователей в процентах по хешу логина. Доля устойчива: пользователь
+ *     либо всегда попадает в неё, либо никогда, и меньшая доля входит в большую;</li>
+ *     <li>{@code header} — заголовок запроса, с {@code headerValue} — заголовок с этим значением.</li>
+ * </ul>
+ * Запрос без известного логина (неверный токен) не подходит под условия на пользователя.
+ * <pre>
+ * { "name": "slow-user1", "endpoints": ["login"], "username": "user1*",
+ *   "latency": { "distribution": "fixed", "millis": 2000 }, "errorRate": 0.1, "errorStatus": 503 }
+ * </pre>
+ */
+public final class LatencyRule {
+    private static final int PERCENT_BUCKETS = 10_000;
+
+    private final String name;
+    private final Set<AuthEndpoint> endpoints;
+    private final String username;
+    private final String usernamePrefix;
+    private final double userPercent;
+    private final int userBuckets;
+    private final String header;
+    private final String headerValue;
+    private final LatencyProfile latency;
+    private final Fault fault;
+
+    private LatencyRule(String name, Set<AuthEndpoint> endpoints, String username, String usernamePrefix,
+                        double userPercent, String header, String headerValue, LatencyProfile latency, Fault fault) {
+        this.name = name;
+        this.endpoints = endpoints;
+        this.username = username;
+        this.usernamePrefix = usernamePrefix;
+        this.userPercent = userPercent;
+        this.userBuckets = userPercent < 0 ? -1 : (int) Math.round(userPercent * (PERCENT_BUCKETS / 100));
+        this.header = header;
+        this.headerValue = headerValue;
+        this.latency = latency;
+        this.fault = fault;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // Профиль задержки правила или null — задержка эндпоинта
+    public LatencyProfile getLatency() {
+        return latency;
+    }
+
+    // Доля ошибок правила или null — доля ошибок эндпоинта
+    public Fault getFault() {
+        return fault;
+    }
+
+    Set<AuthEndpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    // Точный логин или null
+    String getUsername() {
+        return username;
+    }
+
+    // Префикс логина или null
+    String getUsernamePrefix() {
+        return usernamePrefix;
+    }
+
+    boolean needsUsername() {
+        return username != null || usernamePrefix != null || userBuckets >= 0;
+    }
+
+    boolean needsHeaders() {
+        return header != null;
+    }
+
+    // Все условия, кроме эндпоинта; username — null, если логин неизвестен
+    boolean matches(String username, RequestHeaders headers) {
+        if (needsUsername()) {
+            if (username == null
+                    || this.username != null && !this.username.equals(username)
+                    || usernamePrefix != null && !username.startsWith(usernamePrefix)
+                    || userBuckets >= 0 && bucket(username) >= userBuckets) {
+                return false;
+            }
+        }
+        if (header != null) {
+            String value = headers == null ? null : headers.get(header);
+            return value != null && (headerValue == null || headerValue.equals(value));
+        }
+        return true;
+    }
+
+    // Номер корзины логина от 0 до PERCENT_BUCKETS: перемешанный hashCode, который String кеширует
+    private static int bucket(String username) {
+        int hash = username.hashCode() * 0x9E3779B9;
+        hash ^= hash >>> 16;
+        return (int) ((hash & 0xFFFFFFFFL) % PERCENT_BUCKETS);
+    }
+
+    public Map<String, Object> describe() {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("name", name);
+        if (endpoints.size() < AuthEndpoint.values().length) {
+            description.put("endpoints", endpoints.stream().map(AuthEndpoint::getKey).toList());
+        }
+        if (username != null || usernamePrefix != null) {
+            description.put("username", username != null ? username : usernamePrefix + "*");
+        }
+        if (userPercent >= 0) {
+            description.put("userPercent", userPercent);
+        }
+        if (header != null) {
+            description.put("header", header);
+            if (headerValue != null) {
+                description.put("headerValue", headerValue);
+            }
+        }
+        if (latency != null) {
+            description.put("latency", latency.describe());
+        }
+        if (fault != null) {
+            description.put("errorRate", fault.rate());
+            description.put("errorStatus", fault.status());
+        }
+        return description;
+    }
+
+    /**
+     * Разбирает правило из JSON-объекта в том же виде, что возвращает {@link #describe()}.
+     */
+    public static LatencyRule parse(Map<?, ?> spec) {
+        Object name = spec.get("name");
+        if (name == null || name.toString().isBlank()) {
+            throw new IllegalArgumentException("Не указано имя правила name");
+        }
+
+        Set<AuthEndpoint> endpoints = EnumSet.allOf(AuthEndpoint.class);
+        if (spec.get("endpoints") != null) {
+            if (!(spec.get("endpoints") instanceof List<?> list) || list.isEmpty()) {
+                throw new IllegalArgumentException("endpoints правила " + name + " должен быть непустым списком");
+            }
+            endpoints = EnumSet.noneOf(AuthEndpoint.class);
+            for (Object type : list) {
+                endpoints.add(AuthEndpoint.fromKey(String.valueOf(type))
+                        .orElseThrow(() -> new IllegalArgumentException("Неверный тип запроса: " + type)));
+            }
+        }
+
+        String username = null;
+        String usernamePrefix = null;
+        if (spec.get("username") != null) {
+            String pattern = spec.get("username").toString();
+            if (pattern.indexOf('*') < 0) {
+                username = pattern;
+            } else if (pattern.indexOf('*') == pattern.length() - 1) {
+                usernamePrefix = pattern.substring(0, pattern.length() - 1);
+            } else {
+                throw new IllegalArgumentException("Звёздочка допускается только в конце username: " + pattern);
+            }
+        }
+
+        double userPercent = -1;
+        if (spec.get("userPercent") != null) {
+            userPercent = Double.parseDouble(spec.get("userPercent").toString());
+            if (!(userPercent >= 0 && userPercent <= 100)) {
+                throw new IllegalArgumentException("userPercent должен быть от 0 до 100");
+            }
+        }
+
+        String header = spec.get("header") == null ? null : spec.get("header").toString().toLowerCase(Locale.ROOT);
+        String headerValue = spec.get("headerValue") == null ? null : spec.get("headerValue").toString();
+        if (headerValue != null && header == null) {
+            throw new IllegalArgumentException("headerValue задан без header");
+        }
+
+        LatencyProfile latency = null;
+        if (spec.get("latency") instanceof Map<?, ?> profile) {
+            @SuppressWarnings("unchecked")
+            Map<String, ?> typed = (Map<String, ?>) profile;
+            latency = LatencyProfile.fromSpec(typed);
+        }
+        Fault fault = null;
+        if (spec.get("errorRate") != null) {
+            int status = spec.get("errorStatus") == null ? Fault.NONE.status() : Integer.parseInt(spec.get("errorStatus").toString());
+            fault = new Fault(Double.parseDouble(spec.get("errorRate").toString()), status);
+        }
+
+        LatencyRule rule = new LatencyRule(name.toString(), endpoints, username, usernamePrefix, userPercent,
+                header, headerValue, latency, fault);
+        if (!rule.needsUsername() && !rule.needsHeaders()) {
+            throw new IllegalArgumentException("У правила " + name + " нет условий — для всех запросов используйте /auth/setLatency");
+        }
+        if (latency == null && fault == null) {
+            throw new IllegalArgumentException("Правило " + name + " должно задавать latency или errorRate");
+        }
+        return rule;
+    }
+
+    /**
+     * Разбирает список правил; имена должны быть уникальными.
+     */
+    public static List<LatencyRule> parseAll(List<?> specs) {
+        List<LatencyRule> rules = new ArrayList<>(specs.size());
+        Set<String> names = new HashSet<>();
+        for (Object spec : specs) {
+            if (!(spec instanceof Map<?, ?> map)) {
+                throw new IllegalArgumentException("Правило должно быть объектом: " + spec);
+            }
+            LatencyRule rule = parse(map);
+            if (!names.add(rule.name)) {
+                throw new IllegalArgumentException("Имя правила повторяется: " + rule.name);
+            }
+            rules.add(rule);
+        }
+        return List.copyOf(rules);
+    }
+}
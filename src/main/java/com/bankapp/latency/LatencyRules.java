@@ -0,0 +1,91 @@
+package com.bankapp.latency;
+
+import com.bankapp.model.AuthEndpoint;
+import com.bankapp.service.AuthMetricsService;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Текущие правила задержки ({@link LatencyRule}) для части пользователей или запросов.
+ * <p>
+ * Правила компилируются в {@link RuleSet} и заменяются целиком одной volatile-ссылкой: запрос видит либо прежний
+ * набор, либо новый. Из подошедших правил действует первое по порядку в наборе.
+ * <p>
+ * Срабатывания правил считаются в {@code bankapp.latency.rule.hits{rule}}. Счётчик привязан к имени правила
+ * и продолжается, если правило с тем же именем есть в новом наборе.
+ */
+@Component
+public class LatencyRules {
+    private final AuthMetricsService authMetrics;
+    private final ConcurrentMap<String, LongAdder> hitsByName = new ConcurrentHashMap<>();
+    private volatile Compiled compiled = new Compiled(RuleSet.EMPTY, new LongAdder[0]);
+
+    // Набор правил и счётчики срабатываний в том же порядке
+    private record Compiled(RuleSet rules, LongAdder[] hits) {
+    }
+
+    public LatencyRules(AuthMetricsService authMetrics) {
+        this.authMetrics = authMetrics;
+    }
+
+    /**
+     * Правило для запроса или null, если ни одно не подошло.
+     *
+     * @param username логин или null, если он неизвестен
+     * @param headers  заголовки запроса или null, если правил на заголовки для эндпоинта нет
+     */
+    public LatencyRule match(AuthEndpoint endpoint, String username, RequestHeaders headers) {
+        Compiled current = compiled;
+        int index = current.rules().match(endpoint, username, headers);
+        if (index < 0) {
+            return null;
+        }
+        current.hits()[index].increment();
+        return current.rules().getRules().get(index);
+    }
+
+    // Есть ли для эндпоинта правила на логин — иначе его можно не определять
+    public boolean needsUsername(AuthEndpoint endpoint) {
+        return compiled.rules().needsUsername(endpoint);
+    }
+
+    // Есть ли для эндпоинта правила на заголовки
+    public boolean needsHeaders(AuthEndpoint endpoint) {
+        return compiled.rules().needsHeaders(endpoint);
+    }
+
+    public synchronized void replace(List<LatencyRule> rules) {
+        LongAdder[] hits = new LongAdder[rules.size()];
+        for (int i = 0; i < hits.length; i++) {
+            hits[i] = hitsByName.computeIfAbsent(rules.get(i).getName(), this::registerHits);
+        }
+        compiled = new Compiled(new RuleSet(rules), hits);
+    }
+
+    public List<Map<String, Object>> describe() {
+        Compiled current = compiled;
+        List<LatencyRule> rules = current.rules().getRules();
+        List<Map<String, Object>> description = new ArrayList<>(rules.size());
+        for (int i = 0; i < rules.size(); i++) {
+            Map<String, Object> rule = new LinkedHashMap<>(rules.get(i).describe());
+            rule.put("hits", current.hits()[i].sum());
+            description.add(rule);
+        }
+        return description;
+    }
+
+    private LongAdder registerHits(String name) {
+        LongAdder hits = new LongAdder();
+        authMetrics.registerCounter("bankapp.latency.rule.hits", "Запросы, к которым применено правило задержки",
+                Tags.of("rule", name), hits, LongAdder::sum);
+        return hits;
+    }
+}
@@ -0,0 +1,178 @@
+package com.bankapp.latency;
+
+import com.bankapp.model.AuthEndpoint;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Сценарий изменения задержек во времени: для каждого запроса — последовательность шагов.
+ * <p>
+ * Шаг длится {@code duration} и задаёт одно из:
+ * <ul>
+ *     <li>{@code latency} — профиль задержки в виде {@link LatencyProfile#fromSpec(Map)};</li>
+ *     <li>{@code rampTo} — линейный переход от средней задержки предыдущего шага к заданной, в мс;</li>
+ *     <li>ничего — задержка предыдущего шага сохраняется.</li>
+ * </ul>
+ * Дополнительно {@code errorRate} (0..1) и {@code errorStatus} (по умолчанию 503) задают долю ошибок на время шага.
+ * После последнего шага сохраняется его состояние, а при {@code loop} сценарий начинается заново.
+ * <pre>
+ * {
+ *   "loop": false,
+ *   "timelines": {
+ *     "login": [
+ *       { "duration": "5m", "latency": { "distribution": "fixed", "millis": 50 } },
+ *       { "duration": "1m", "rampTo": 2000 },
+ *       { "duration": "30s", "errorRate": 1.0 },
+ *       { "duration": "1m", "latency": { "distribution": "fixed", "millis": 50 } }
+ *     ]
+ *   }
+ * }
+ * </pre>
+ */
+public final class LatencyScenario {
+
+    private final Map<AuthEndpoint, List<Step>> timelines;
+    private final boolean loop;
+    private final long durationNanos;
+
+    private LatencyScenario(Map<AuthEndpoint, List<Step>> timelines, boolean loop) {
+        this.timelines = timelines;
+        this.loop = loop;
+        this.durationNanos = timelines.values().stream()
+                .mapToLong(steps -> steps.stream().mapToLong(step -> step.duration().toNanos()).sum())
+                .max().orElse(0);
+    }
+
+    record Step(Duration duration, LatencyProfile latency, Double rampToMillis, Fault fault) {
+    }
+
+    public boolean isLoop() {
+        return loop;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * Разбирает сценарий из JSON-тела запроса.
+     */
+    public static LatencyScenario parse(Map<String, ?> body) {
+        if (!(body.get("timelines") instanceof Map<?, ?> timelines) || timelines.isEmpty()) {
+            throw new IllegalArgumentException("Не указаны timelines");
+        }
+        Map<AuthEndpoint, List<Step>> parsed = new EnumMap<>(AuthEndpoint.class);
+        timelines.forEach((type, steps) -> {
+            AuthEndpoint endpoint = AuthEndpoint.fromKey(String.valueOf(type))
+                    .orElseThrow(() -> new IllegalArgumentException("Неверный тип запроса: " + type));
+            if (!(steps instanceof List<?> list) || list.isEmpty()) {
+                throw new IllegalArgumentException("Шаги для " + type + " должны быть непустым списком");
+            }
+            List<Step> endpointSteps = new ArrayList<>(list.size());
+            for (Object step : list) {
+                if (!(step instanceof Map<?, ?> map)) {
+                    throw new IllegalArgumentException("Шаг сценария должен быть объектом: " + step);
+                }
+                endpointSteps.add(parseStep(map));
+            }
+            parsed.put(endpoint, List.copyOf(endpointSteps));
+        });
+        boolean loop = Boolean.parseBoolean(String.valueOf(body.get("loop")));
+        LatencyScenario scenario = new LatencyScenario(Collections.unmodifiableMap(parsed), loop);
+        if (loop && scenario.durationNanos == 0) {
+            throw new IllegalArgumentException("Повторяемый сценарий должен иметь ненулевую длительность");
+        }
+        return scenario;
+    }
+
+    private static Step parseStep(Map<?, ?> step) {
+        Object duration = step.get("duration");
+        if (duration == null) {
+            throw new IllegalArgumentException("Не указан параметр duration");
+        }
+        Duration parsedDuration = duration instanceof Number millis
+                ? Duration.ofMillis(millis.longValue())
+                : DurationStyle.detectAndParse(duration.toString());
+        if (parsedDuration.isNegative()) {
+            throw new IllegalArgumentException("duration должен быть неотрицательным");
+        }
+
+        LatencyProfile latency = null;
+        if (step.get("latency") instanceof Map<?, ?> spec) {
+            @SuppressWarnings("unchecked")
+            Map<String, ?> typed = (Map<String, ?>) spec;
+            latency = LatencyProfile.fromSpec(typed);
+        }
+        Double rampTo = step.get("rampTo") == null ? null : Double.valueOf(step.get("rampTo").toString());
+        if (latency != null && rampTo != null) {
+            throw new IllegalArgumentException("В одном шаге нельзя указать latency и rampTo");
+        }
+        if (rampTo != null && !(rampTo >= 0)) {
+            throw new IllegalArgumentException("rampTo должен быть неотрицательным");
+        }
+
+        double errorRate = step.get("errorRate") == null ? 0 : Double.parseDouble(step.get("errorRate").toString());
+        int errorStatus = step.get("errorStatus") == null ? Fault.NONE.status() : Integer.parseInt(step.get("errorStatus").toString());
+        Fault fault = errorRate == 0 && errorStatus == Fault.NONE.status() ? Fault.NONE : new Fault(errorRate, errorStatus);
+        return new Step(parsedDuration, latency, rampTo, fault);
+    }
+
+    /**
+     * Привязывает шаги ко времени от начала сценария; профили, не заданные шагами, берутся из {@code base}.
+     */
+    Map<AuthEndpoint, Timeline> resolve(LatencyTable base) {
+        Map<AuthEndpoint, Timeline> resolved = new EnumMap<>(AuthEndpoint.class);
+        timelines.forEach((endpoint, steps) -> {
+            List<Segment> segments = new ArrayList<>(steps.size());
+            LatencyProfile previous = base.get(endpoint);
+            long start = 0;
+            for (Step step : steps) {
+                long end = start + step.duration().toNanos();
+                if (step.rampToMillis() != null) {
+                    segments.add(new Segment(start, end, null, previous.meanMillis(), step.rampToMillis(), step.fault()));
+                    previous = new LatencyProfile.Fixed(Math.round(step.rampToMillis()));
+                } else {
+                    if (step.latency() != null) {
+                        previous = step.latency();
+                    }
+                    segments.add(new Segment(start, end, previous, 0, 0, step.fault()));
+                }
+                start = end;
+            }
+            resolved.put(endpoint, new Timeline(List.copyOf(segments)));
+        });
+        return resolved;
+    }
+
+    // Шаг, привязанный ко времени: постоянный профиль или переход от rampFrom к rampTo
+    record Segment(long startNanos, long endNanos, LatencyProfile profile, double rampFrom, double rampTo, Fault fault) {
+
+        LatencyProfile profileAt(long nanos) {
+            if (profile != null) {
+                return profile;
+            }
+            long length = endNanos - startNanos;
+            double fraction = length == 0 ? 1 : Math.min(1, Math.max(0, (double) (nanos - startNanos) / length));
+            return new LatencyProfile.Fixed(Math.round(rampFrom + (rampTo - rampFrom) * fraction));
+        }
+    }
+
+    record Timeline(List<Segment> segments) {
+
+        // Номер шага в момент nanos от начала; после конца — последний шаг
+        int stepAt(long nanos) {
+            for (int i = 0; i < segments.size(); i++) {
+                if (nanos < segments.get(i).endNanos()) {
+                    return i;
+                }
+            }
+            return segments.size() - 1;
+        }
+    }
+}
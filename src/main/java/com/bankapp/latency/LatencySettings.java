@@ -0,0 +1,76 @@
+package com.bankapp.latency;
+
+import com.bankapp.model.AuthEndpoint;
+import com.bankapp.service.AuthMetricsService;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.function.UnaryOperator;
+
+/**
+ * Текущие профили задержки по запросам.
+ * <p>
+ * Запрос читает одну volatile-ссылку на неизменяемую таблицу и сэмплирует профиль —
+ * без блокировок и выделения памяти. Изменения редки и сериализуются.
+ * <p>
+ * При заданном {@code bankapp.shared.path} таблица хранится в общем файле, отображённом в память
+ * ({@link SharedLatencyFile}): все заглушки на хосте с тем же путём видят изменение, сделанное через любую из них.
+ */
+@Component
+public class LatencySettings {
+    private static final Logger log = LoggerFactory.getLogger(LatencySettings.class);
+
+    private volatile LatencyTable table = LatencyTable.EMPTY;
+    private final SharedLatencyFile shared;
+
+    public LatencySettings(AuthMetricsService authMetrics,
+                           @Value("${bankapp.shared.path:}") String sharedPath) throws IOException {
+        this.shared = sharedPath.isBlank() ? null : new SharedLatencyFile(Path.of(sharedPath));
+        if (shared != null) {
+            log.info("Настройки задержек общие для заглушек на хосте: {}", sharedPath);
+        }
+        // Среднее значение текущего профиля, для распределений — не совпадает с отдельными задержками
+        for (AuthEndpoint endpoint : AuthEndpoint.values()) {
+            Tags tags = Tags.of("endpoint", endpoint.getKey());
+            authMetrics.registerGauge("bankapp.auth.timeout", "Текущая задержка ответа (среднее, в секундах)",
+                    tags, this, s -> s.current().get(endpoint).meanMillis() / 1000.0);
+            authMetrics.registerGauge("bankapp.auth.error.rate", "Текущая доля эмулируемых ошибок",
+                    tags, this, s -> s.current().fault(endpoint).rate());
+        }
+    }
+
+    // Задержка в миллисекундах для очередного запроса
+    public long sampleMillis(AuthEndpoint endpoint) {
+        return current().get(endpoint).sampleMillis();
+    }
+
+    public LatencyTable current() {
+        return shared == null ? table : shared.current();
+    }
+
+    public void set(AuthEndpoint endpoint, LatencyProfile profile) {
+        update(table -> table.with(endpoint, profile));
+    }
+
+    // Атомарная замена всей таблицы: запросы видят либо прежние значения по всем эндпоинтам, либо новые
+    public synchronized void update(UnaryOperator<LatencyTable> change) {
+        if (shared != null) {
+            shared.update(change);
+        } else {
+            table = change.apply(table);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (shared != null) {
+            shared.close();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.bankapp.latency;
+
+import com.bankapp.model.AuthEndpoint;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Неизменяемый набор профилей задержки и долей ошибок по всем запросам.
+ * Изменение создаёт новую таблицу, поэтому читатели всегда видят согласованное состояние.
+ */
+public final class LatencyTable {
+
+    public static final LatencyTable EMPTY = new LatencyTable(filled(LatencyProfile.NONE, LatencyProfile[]::new),
+            filled(Fault.NONE, Fault[]::new));
+
+    private final LatencyProfile[] profiles;
+    private final Fault[] faults;
+
+    private LatencyTable(LatencyProfile[] profiles, Fault[] faults) {
+        this.profiles = profiles;
+        this.faults = faults;
+    }
+
+    public LatencyProfile get(AuthEndpoint endpoint) {
+        return profiles[endpoint.ordinal()];
+    }
+
+    public Fault fault(AuthEndpoint endpoint) {
+        return faults[endpoint.ordinal()];
+    }
+
+    public LatencyTable with(AuthEndpoint endpoint, LatencyProfile profile) {
+        LatencyProfile[] copy = profiles.clone();
+        copy[endpoint.ordinal()] = profile;
+        return new LatencyTable(copy, faults);
+    }
+
+    public LatencyTable with(AuthEndpoint endpoint, Fault fault) {
+        Fault[] copy = faults.clone();
+        copy[endpoint.ordinal()] = fault;
+        return new LatencyTable(profiles, copy);
+    }
+
+    public Map<String, Object> describe() {
+        Map<String, Object> description = new LinkedHashMap<>();
+        for (AuthEndpoint endpoint : AuthEndpoint.values()) {
+            Map<String, Object> profile = get(endpoint).describe();
+            Fault fault = fault(endpoint);
+            if (fault.rate() > 0) {
+                profile.put("errorRate", fault.rate());
+                profile.put("errorStatus", fault.status());
+            }
+            description.put(endpoint.getKey(), profile);
+        }
+        return description;
+    }
+
+    /**
+     * Таблица по описанию в том же виде, что возвращает {@link #describe()}.
+     * Незаданные и неизвестные запросы пропускаются — для них остаются значения по умолчанию.
+     */
+    public static LatencyTable fromDescription(Map<String, ?> description) {
+        LatencyTable table = EMPTY;
+        for (AuthEndpoint endpoint : AuthEndpoint.values()) {
+            if (!(description.get(endpoint.getKey()) instanceof Map<?, ?> spec)) {
+                continue;
+            }
+            @SuppressWarnings("unchecked")
+            Map<String, ?> profile = (Map<String, ?>) spec;
+            table = table.with(endpoint, LatencyProfile.fromSpec(profile));
+            if (profile.get("errorRate") instanceof Number rate) {
+                table = table.with(endpoint, new Fault(rate.doubleValue(), ((Number) profile.get("errorStatus")).intValue()));
+            }
+        }
+        return table;
+    }
+
+    private static <T> T[] filled(T value, IntFunction<T[]> array) {
+        T[] values = array.apply(AuthEndpoint.values().length);
+        Arrays.fill(values, value);
+        return values;
+    }
+}
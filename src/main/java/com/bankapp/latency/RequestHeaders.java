@@ -0,0 +1,11 @@
+package com.bankapp.latency;
+
+/**
+ * Заголовки запроса для условий {@link LatencyRule}.
+ */
+@FunctionalInterface
+public interface RequestHeaders {
+
+    // Значение заголовка или null
+    String get(String name);
+}
@@ -0,0 +1,166 @@
+package com.bankapp.latency;
+
+import com.bankapp.model.AuthEndpoint;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Правила задержки, скомпилированные для поиска по запросу. Неизменяем, заменяется целиком.
+ * <p>
+ * Для каждого эндпоинта правила разложены по индексам: точный логин — хеш-таблица, префикс логина — префиксное дерево,
+ * остальные (только доля пользователей или заголовок) — общий список. Поиск проверяет только правила-кандидаты
+ * из этих индексов в порядке объявления и останавливается на первом подошедшем, поэтому стоимость не растёт
+ * с числом правил на чужие логины и не выделяет память.
+ */
+final class RuleSet {
+    static final RuleSet EMPTY = new RuleSet(List.of());
+
+    private static final int[] NONE = new int[0];
+
+    private final List<LatencyRule> rules;
+    private final LatencyRule[] byIndex;
+    private final Index[] indexes = new Index[AuthEndpoint.values().length];
+
+    RuleSet(List<LatencyRule> rules) {
+        this.rules = rules;
+        this.byIndex = rules.toArray(LatencyRule[]::new);
+        for (AuthEndpoint endpoint : AuthEndpoint.values()) {
+            indexes[endpoint.ordinal()] = new Index(endpoint);
+        }
+    }
+
+    List<LatencyRule> getRules() {
+        return rules;
+    }
+
+    // Номер первого подходящего правила или -1
+    int match(AuthEndpoint endpoint, String username, RequestHeaders headers) {
+        return indexes[endpoint.ordinal()].match(username, headers);
+    }
+
+    boolean needsUsername(AuthEndpoint endpoint) {
+        return indexes[endpoint.ordinal()].needsUsername;
+    }
+
+    boolean needsHeaders(AuthEndpoint endpoint) {
+        return indexes[endpoint.ordinal()].needsHeaders;
+    }
+
+    private final class Index {
+        private final Map<String, int[]> exact = new HashMap<>();
+        private final PrefixNode prefixes;
+        private final int[] others;
+        private final boolean needsUsername;
+        private final boolean needsHeaders;
+
+        Index(AuthEndpoint endpoint) {
+            Map<String, List<Integer>> exactRules = new HashMap<>();
+            Map<String, List<Integer>> prefixRules = new TreeMap<>();
+            List<Integer> otherRules = new ArrayList<>();
+            boolean username = false;
+            boolean headers = false;
+            for (int i = 0; i < byIndex.length; i++) {
+                LatencyRule rule = byIndex[i];
+                if (!rule.getEndpoints().contains(endpoint)) {
+                    continue;
+                }
+                username |= rule.needsUsername();
+                headers |= rule.needsHeaders();
+                if (rule.getUsername() != null) {
+                    exactRules.computeIfAbsent(rule.getUsername(), k -> new ArrayList<>()).add(i);
+                } else if (rule.getUsernamePrefix() != null) {
+                    prefixRules.computeIfAbsent(rule.getUsernamePrefix(), k -> new ArrayList<>()).add(i);
+                } else {
+                    otherRules.add(i);
+                }
+            }
+            exactRules.forEach((name, numbers) -> exact.put(name, toArray(numbers)));
+            this.prefixes = PrefixNode.build(prefixRules, 0);
+            this.others = toArray(otherRules);
+            this.needsUsername = username;
+            this.needsHeaders = headers;
+        }
+
+        int match(String username, RequestHeaders headers) {
+            int best = Integer.MAX_VALUE;
+            if (username != null) {
+                best = first(exact.getOrDefault(username, NONE), best, username, headers);
+                PrefixNode node = prefixes;
+                int depth = 0;
+                while (node != null) {
+                    best = first(node.rules, best, username, headers);
+                    node = depth < username.length() ? node.child(username.charAt(depth++)) : null;
+                }
+            }
+            best = first(others, best, username, headers);
+            return best == Integer.MAX_VALUE ? -1 : best;
+        }
+
+        // Первое подошедшее правило из кандидатов (по возрастанию номера), если оно раньше best
+        private int first(int[] candidates, int best, String username, RequestHeaders headers) {
+            for (int candidate : candidates) {
+                if (candidate >= best) {
+                    return best;
+                }
+                if (byIndex[candidate].matches(username, headers)) {
+                    return candidate;
+                }
+            }
+            return best;
+        }
+    }
+
+    /**
+     * Узел префиксного дерева: правила, чей префикс заканчивается в узле, и дочерние узлы по следующему символу
+     * в отсортированном массиве для двоичного поиска.
+     */
+    private static final class PrefixNode {
+        private final int[] rules;
+        private final char[] keys;
+        private final PrefixNode[] children;
+
+        private PrefixNode(int[] rules, char[] keys, PrefixNode[] children) {
+            this.rules = rules;
+            this.keys = keys;
+            this.children = children;
+        }
+
+        PrefixNode child(char key) {
+            int position = Arrays.binarySearch(keys, key);
+            return position < 0 ? null : children[position];
+        }
+
+        // Дерево по отсортированным префиксам, у которых первые depth символов общие; null — префиксов нет
+        static PrefixNode build(Map<String, List<Integer>> prefixes, int depth) {
+            if (prefixes.isEmpty()) {
+                return null;
+            }
+            List<Integer> here = new ArrayList<>();
+            Map<Character, Map<String, List<Integer>>> deeper = new TreeMap<>();
+            prefixes.forEach((prefix, rules) -> {
+                if (prefix.length() == depth) {
+                    here.addAll(rules);
+                } else {
+                    deeper.computeIfAbsent(prefix.charAt(depth), k -> new TreeMap<>()).put(prefix, rules);
+                }
+            });
+            char[] keys = new char[deeper.size()];
+            PrefixNode[] children = new PrefixNode[deeper.size()];
+            int i = 0;
+            for (Map.Entry<Character, Map<String, List<Integer>>> entry : deeper.entrySet()) {
+                keys[i] = entry.getKey();
+                children[i++] = build(entry.getValue(), depth + 1);
+            }
+            return new PrefixNode(toArray(here), keys, children);
+        }
+    }
+
+    private static int[] toArray(List<Integer> values) {
+        return values.stream().mapToInt(Integer::intValue).sorted().toArray();
+    }
+}
@@ -0,0 +1,156 @@
+package com.bankapp.latency;
+
+import com.bankapp.model.AuthEndpoint;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Проигрывает {@link LatencyScenario} внутри заглушки.
+ * <p>
+ * Раз в {@code bankapp.scenario.tick} поток сценария вычисляет состояние всех запросов сценария и одной заменой
+ * таблицы в {@link LatencySettings} применяет его: запросы видят изменения по всем эндпоинтам одновременно,
+ * а путь запроса по-прежнему читает одну volatile-ссылку. Запросы, которых нет в сценарии, не меняются.
+ * После остановки или окончания сценария остаются последние применённые значения, если не запрошен возврат
+ * к значениям, которые были до запуска.
+ */
+@Component
+public class ScenarioRunner {
+    private static final Logger log = LoggerFactory.getLogger(ScenarioRunner.class);
+
+    private final LatencySettings latency;
+    private final long tickMillis;
+    private final ScheduledExecutorService executor;
+
+    private Run run;
+
+    public ScenarioRunner(LatencySettings latency, @Value("${bankapp.scenario.tick:100ms}") Duration tick) {
+        this.latency = latency;
+        this.tickMillis = Math.max(1, tick.toMillis());
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "latency-scenario");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Запускает сценарий, прерывая текущий
+    public synchronized void start(LatencyScenario scenario) {
+        stop();
+        LatencyTable base = latency.current();
+        Run started = new Run(scenario, base, scenario.resolve(base), System.nanoTime());
+        started.task = executor.scheduleAtFixedRate(() -> tick(started), 0, tickMillis, TimeUnit.MILLISECONDS);
+        run = started;
+        log.info("Запущен сценарий задержек длительностью {} мс", scenario.getDurationNanos() / 1_000_000);
+    }
+
+    // Останавливает сценарий; false — сценарий не выполнялся
+    public synchronized boolean stop() {
+        if (run == null || run.state != State.RUNNING) {
+            return false;
+        }
+        run.task.cancel(false);
+        run.state = State.STOPPED;
+        return true;
+    }
+
+    /**
+     * Останавливает сценарий и возвращает запросам сценария задержки и доли ошибок, которые были до его запуска.
+     * false — сценариев не запускалось.
+     */
+    public synchronized boolean reset() {
+        if (run == null) {
+            return false;
+        }
+        stop();
+        Run last = run;
+        latency.update(table -> {
+            for (AuthEndpoint endpoint : last.timelines.keySet()) {
+                table = table.with(endpoint, last.base.get(endpoint)).with(endpoint, last.base.fault(endpoint));
+            }
+            return table;
+        });
+        return true;
+    }
+
+    private void tick(Run current) {
+        synchronized (this) {
+            if (current != run || current.state != State.RUNNING) {
+                return;
+            }
+            long elapsed = System.nanoTime() - current.startNanos;
+            long duration = current.scenario.getDurationNanos();
+            if (!current.scenario.isLoop() && elapsed >= duration) {
+                apply(current, duration);
+                current.task.cancel(false);
+                current.state = State.FINISHED;
+                log.info("Сценарий задержек завершён");
+                return;
+            }
+            apply(current, current.scenario.isLoop() ? elapsed % duration : elapsed);
+        }
+    }
+
+    private void apply(Run current, long nanos) {
+        latency.update(table -> {
+            for (Map.Entry<AuthEndpoint, LatencyScenario.Timeline> entry : current.timelines.entrySet()) {
+                LatencyScenario.Segment segment = entry.getValue().segments().get(entry.getValue().stepAt(nanos));
+                table = table.with(entry.getKey(), segment.profileAt(nanos)).with(entry.getKey(), segment.fault());
+            }
+            return table;
+        });
+        current.positionNanos = nanos;
+    }
+
+    public synchronized Map<String, Object> describe() {
+        Map<String, Object> description = new LinkedHashMap<>();
+        if (run == null) {
+            description.put("state", "none");
+            return description;
+        }
+        description.put("state", run.state.name().toLowerCase());
+        description.put("loop", run.scenario.isLoop());
+        description.put("durationMillis", run.scenario.getDurationNanos() / 1_000_000);
+        description.put("elapsedMillis", (System.nanoTime() - run.startNanos) / 1_000_000);
+        Map<String, Object> steps = new LinkedHashMap<>();
+        run.timelines.forEach((endpoint, timeline) -> steps.put(endpoint.getKey(),
+                (timeline.stepAt(run.positionNanos) + 1) + "/" + timeline.segments().size()));
+        description.put("steps", steps);
+        return description;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private enum State { RUNNING, STOPPED, FINISHED }
+
+    private static final class Run {
+        private final LatencyScenario scenario;
+        private final LatencyTable base;
+        private final Map<AuthEndpoint, LatencyScenario.Timeline> timelines;
+        private final long startNanos;
+        private ScheduledFuture<?> task;
+        private State state = State.RUNNING;
+        private long positionNanos;
+
+        Run(LatencyScenario scenario, LatencyTable base, Map<AuthEndpoint, LatencyScenario.Timeline> timelines,
+            long startNanos) {
+            this.scenario = scenario;
+            this.base = base;
+            this.timelines = timelines;
+            this.startNanos = startNanos;
+        }
+    }
+}
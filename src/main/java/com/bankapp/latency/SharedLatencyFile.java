@@ -0,0 +1,155 @@
+package com.bankapp.latency;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * Таблица задержек в файле, отображённом в память, — общая для всех заглушек на хосте, открывших тот же файл.
+ * <p>
+ * Формат: магическое число, номер версии (seqlock), длина и описание таблицы в JSON
+ * в том же виде, что {@link LatencyTable#describe()}.
+ * <p>
+ * Запись идёт под блокировкой файла: номер версии становится нечётным, пишутся длина и описание,
+ * затем номер снова чётный. Запрос читает только номер версии; если он не изменился — берёт разобранную
+ * таблицу из кеша. Иначе копирует описание и проверяет, что номер остался тем же; если запись
+ * ещё идёт — отдаёт прежнюю таблицу и повторяет попытку на следующем запросе. Путь запроса не ждёт и
+ * не берёт блокировок, изменение видно другим процессам сразу после записи.
+ */
+final class SharedLatencyFile implements Closeable {
+    private static final long MAGIC = 0x414D4C4154454E31L; // "AMLATEN1"
+    private static final int SEQUENCE_OFFSET = 8;
+    private static final int LENGTH_OFFSET = 16;
+    private static final int PAYLOAD_OFFSET = 24;
+    private static final int FILE_BYTES = 1 << 20;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> DESCRIPTION = new TypeReference<>() {
+    };
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private volatile Cached cached;
+
+    // Разобранная таблица и номер версии, из которой она прочитана
+    private record Cached(long sequence, LatencyTable table) {
+    }
+
+    SharedLatencyFile(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try (FileLock lock = channel.lock()) {
+            boolean created = channel.size() == 0;
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, FILE_BYTES);
+            if (created) {
+                buffer.putLong(0, MAGIC);
+                write(LatencyTable.EMPTY);
+            } else if (buffer.getLong(0) != MAGIC) {
+                throw new IOException("Файл не является файлом общих настроек задержек: " + path);
+            } else if ((sequence() & 1) != 0) {
+                // Прежний процесс упал посреди записи — восстанавливаем пустую таблицу
+                write(LatencyTable.EMPTY);
+            }
+            this.cached = read();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // Текущая таблица: одно чтение номера версии, если с прошлого запроса ничего не менялось
+    LatencyTable current() {
+        Cached snapshot = cached;
+        if (sequence() == snapshot.sequence()) {
+            return snapshot.table();
+        }
+        Cached fresh = read();
+        if (fresh == null) {
+            return snapshot.table();
+        }
+        if (fresh.sequence() > snapshot.sequence()) {
+            cached = fresh;
+        }
+        return fresh.table();
+    }
+
+    // Применяет изменение к последней записанной таблице; изменения из разных процессов не теряются
+    synchronized LatencyTable update(UnaryOperator<LatencyTable> change) {
+        try (FileLock lock = channel.lock()) {
+            // Под блокировкой файла никто не пишет, поэтому несогласованное чтение значит, что другой процесс упал
+            // посреди записи. Как и при открытии, такая запись считается брошенной и перезаписывается — изменение
+            // применяется к последней таблице, которую видел этот процесс
+            Cached stored = read();
+            LatencyTable table = change.apply(stored != null ? stored.table() : cached.table());
+            long sequence = write(table);
+            cached = new Cached(sequence, table);
+            return table;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private long sequence() {
+        return (long) LONGS.getAcquire(buffer, SEQUENCE_OFFSET);
+    }
+
+    // Согласованная копия таблицы или null, если запись идёт прямо сейчас
+    private Cached read() {
+        long before = sequence();
+        if ((before & 1) != 0) {
+            return null;
+        }
+        int length = buffer.getInt(LENGTH_OFFSET);
+        if (length < 0 || length > FILE_BYTES - PAYLOAD_OFFSET) {
+            return null;
+        }
+        byte[] payload = new byte[length];
+        buffer.get(PAYLOAD_OFFSET, payload);
+        VarHandle.acquireFence();
+        if (sequence() != before) {
+            return null;
+        }
+        try {
+            return new Cached(before, LatencyTable.fromDescription(JSON.readValue(payload, DESCRIPTION)));
+        } catch (IOException e) {
+            throw new IllegalStateException("Повреждён файл общих настроек задержек", e);
+        }
+    }
+
+    // Вызывается под блокировкой файла, возвращает новый номер версии
+    private long write(LatencyTable table) throws IOException {
+        byte[] payload = JSON.writeValueAsBytes(table.describe());
+        if (payload.length > FILE_BYTES - PAYLOAD_OFFSET) {
+            throw new IllegalArgumentException("Настройки задержек не помещаются в общий файл");
+        }
+        long sequence = ((long) LONGS.getVolatile(buffer, SEQUENCE_OFFSET) | 1) + 1;
+        LONGS.setVolatile(buffer, SEQUENCE_OFFSET, sequence - 1);
+        VarHandle.storeStoreFence();
+        buffer.putInt(LENGTH_OFFSET, payload.length);
+        buffer.put(PAYLOAD_OFFSET, payload);
+        LONGS.setRelease(buffer, SEQUENCE_OFFSET, sequence);
+        return sequence;
+    }
+}
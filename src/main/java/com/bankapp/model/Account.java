@@ -1,14 +1,33 @@
 package com.bankapp.model;
 
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Setter;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.UUID;
 
+/**
+ * Счёт клиента. Остаток хранится в копейках и меняется только атомарно через {@link #add(long)}.
+ */
 @Data
 public class Account {
+    private static final VarHandle BALANCE;
+
+    static {
+        try {
+            BALANCE = MethodHandles.lookup().findVarHandle(Account.class, "balance", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     private String id;
     private String accountNumber;
     private String cardNumber;
-    private double balance;
+    @Setter(AccessLevel.NONE)
+    private volatile long balance;
 
     public Account() {
         this.id = UUID.randomUUID().toString();
@@ -16,6 +35,13 @@ public class Account {
         this.cardNumber = UUID.randomUUID().toString().replace("-", "").substring(0, 16);
     }
 
+    public Account(String id, String accountNumber, String cardNumber, long balance) {
+        this.id = id;
+        this.accountNumber = accountNumber;
+        this.cardNumber = cardNumber;
+        this.balance = balance;
+    }
+
     public String getId() {
         return id;
     }
@@ -28,11 +54,42 @@ public class Account {
         return cardNumber;
     }
 
-    public double getBalance() {
+    // Остаток в копейках
+    public long getBalance() {
         return balance;
     }
 
-    public void setBalance(double balance) {
-        this.balance = balance;
+    /**
+     * Изменяет остаток на {@code delta} копеек и возвращает новый остаток. Изменение — CAS-цикл, который не уводит
+     * остаток ниже нуля и не переполняет его.
+     *
+     * @throws InsufficientFundsException если для списания не хватает средств
+     * @throws BalanceOverflowException   если после пополнения остаток не поместится в long
+     */
+    public long add(long delta) {
+        long current;
+        long updated;
+        do {
+            current = balance;
+            updated = apply(accountNumber, current, delta);
+        } while (!BALANCE.weakCompareAndSet(this, current, updated));
+        return updated;
+    }
+
+    /**
+     * Остаток после изменения на {@code delta} копеек.
+     *
+     * @throws InsufficientFundsException если для списания не хватает средств
+     * @throws BalanceOverflowException   если после пополнения остаток не поместится в long
+     */
+    public static long apply(String accountNumber, long current, long delta) {
+        if (delta < 0 && current + delta < 0) {
+            throw new InsufficientFundsException(accountNumber, current, -delta);
+        }
+        try {
+            return Math.addExact(current, delta);
+        } catch (ArithmeticException e) {
+            throw new BalanceOverflowException(accountNumber, current, delta);
+        }
     }
 }
@@ -0,0 +1,36 @@
+package com.bankapp.model;
+
+import java.util.Optional;
+
+/**
+ * Запросы заглушки, для которых настраивается задержка ответа.
+ */
+public enum AuthEndpoint {
+    LOGIN("login"),
+    LOGOUT("logout"),
+    LOGGED_USER("loggedUser"),
+    IS_LOGGED("isLogged"),
+    REGISTER("register");
+
+    private static final AuthEndpoint[] VALUES = values();
+
+    private final String key;
+
+    AuthEndpoint(String key) {
+        this.key = key;
+    }
+
+    // Имя запроса в API: login, logout, loggedUser, isLogged, register
+    public String getKey() {
+        return key;
+    }
+
+    public static Optional<AuthEndpoint> fromKey(String key) {
+        for (AuthEndpoint endpoint : VALUES) {
+            if (endpoint.key.equals(key)) {
+                return Optional.of(endpoint);
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,17 @@
+package com.bankapp.model;
+
+/**
+ * Пополнение, после которого остаток счёта не помещается в long.
+ */
+public class BalanceOverflowException extends RuntimeException {
+    private final String accountNumber;
+
+    public BalanceOverflowException(String accountNumber, long balance, long amount) {
+        super("Остаток счёта " + accountNumber + " превысит предел: остаток " + balance + ", пополнение " + amount);
+        this.accountNumber = accountNumber;
+    }
+
+    public String getAccountNumber() {
+        return accountNumber;
+    }
+}
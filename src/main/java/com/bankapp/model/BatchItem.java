@@ -0,0 +1,7 @@
+package com.bankapp.model;
+
+/**
+ * Элемент пакетного входа или регистрации. Для входа нужны только {@code username} и {@code password}.
+ */
+public record BatchItem(String fullName, String phone, String username, String password) {
+}
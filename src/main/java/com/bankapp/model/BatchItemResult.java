@@ -0,0 +1,11 @@
+package com.bankapp.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Результат обработки элемента пакета: номер элемента в запросе, код как у одиночного вызова
+ * и токен сессии (вход) или id клиента (регистрация).
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchItemResult(int index, String username, int status, String token, String clientId, String error) {
+}
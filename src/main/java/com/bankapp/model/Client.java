@@ -15,7 +15,11 @@ public class Client {
     private List<Account> accounts = new ArrayList<>();
 
     public Client(String fullName, String phone, String username, String password) {
-        this.id = UUID.randomUUID().toString();
+        this(UUID.randomUUID().toString(), fullName, phone, username, password);
+    }
+
+    public Client(String id, String fullName, String phone, String username, String password) {
+        this.id = id;
         this.fullName = fullName;
         this.phone = phone;
         this.username = username;
@@ -0,0 +1,8 @@
+package com.bankapp.model;
+
+/**
+ * Данные клиента, нужные для входа: без счетов и персональных данных,
+ * чтобы проверка пароля не собирала полный {@link Client}.
+ */
+public record Credentials(String clientId, String username, String password) {
+}
@@ -0,0 +1,17 @@
+package com.bankapp.model;
+
+/**
+ * Списание больше остатка счёта.
+ */
+public class InsufficientFundsException extends RuntimeException {
+    private final String accountNumber;
+
+    public InsufficientFundsException(String accountNumber, long balance, long amount) {
+        super("Недостаточно средств на счёте " + accountNumber + ": остаток " + balance + ", списание " + amount);
+        this.accountNumber = accountNumber;
+    }
+
+    public String getAccountNumber() {
+        return accountNumber;
+    }
+}
@@ -0,0 +1,16 @@
+package com.bankapp.model;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Снимок живого потока статистики: время снятия, длительность интервала и статистика каждого эндпоинта за него.
+ */
+public record LiveSnapshot(Instant timestamp, long intervalMillis, Map<String, Endpoint> endpoints) {
+
+    /**
+     * Запросы и ошибки (коды от 400) за интервал и перцентили полного времени ответа в миллисекундах.
+     */
+    public record Endpoint(long count, double rps, long errors, double p50Ms, double p99Ms, double maxMs) {
+    }
+}
@@ -0,0 +1,17 @@
+package com.bankapp.repository;
+
+/**
+ * Счёт с указанным номером счёта или карты не найден.
+ */
+public class AccountNotFoundException extends RuntimeException {
+    private final String number;
+
+    public AccountNotFoundException(String number) {
+        super("Счёт или карта " + number + " не найдены");
+        this.number = number;
+    }
+
+    public String getNumber() {
+        return number;
+    }
+}
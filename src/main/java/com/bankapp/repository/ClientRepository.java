@@ -1,27 +1,81 @@
 package com.bankapp.repository;
 
+import com.bankapp.model.Account;
+import com.bankapp.model.BalanceOverflowException;
 import com.bankapp.model.Client;
+import com.bankapp.model.Credentials;
+import com.bankapp.model.InsufficientFundsException;
+
 import java.util.*;
+import java.util.function.Consumer;
 
+/**
+ * Хранилище клиентов.
+ * <p>
+ * Способ хранения выбирается свойством {@code bankapp.repository.layout}: {@code heap} — объекты в куче
+ * ({@link HeapClientStore}, по умолчанию), {@code compact} — колоночные массивы ({@link CompactClientStore}).
+ */
 public class ClientRepository {
-    private static final Map<String, Client> clients = new HashMap<>();
+    private static volatile ClientStore store = new HeapClientStore();
+
+    // Подменяет способ хранения; вызывается при старте, до появления клиентов
+    public static void use(ClientStore clientStore) {
+        store = clientStore;
+    }
 
+    /**
+     * Сохраняет клиента.
+     *
+     * @throws DuplicateUsernameException если логин уже занят другим клиентом
+     */
     public static Client save(Client client) {
-        clients.put(client.getId(), client);
-        return client;
+        return store.save(client);
+    }
+
+    public static Optional<Credentials> findCredentials(String username) {
+        return store.findCredentials(username);
     }
 
     public static Optional<Client> findByUsername(String username) {
-        return clients.values().stream()
-                .filter(c -> c.getUsername().equals(username))
-                .findFirst();
+        return store.findByUsername(username);
     }
 
     public static Optional<Client> findById(String id) {
-        return Optional.ofNullable(clients.get(id));
+        return store.findById(id);
     }
 
     public static Collection<Client> getAllClients() {
-        return clients.values();
+        return store.getAllClients();
+    }
+
+    public static void forEach(Consumer<Client> action) {
+        store.forEach(action);
+    }
+
+    public static long scan(long cursor, int limit, Consumer<Client> action) {
+        return store.scan(cursor, limit, action);
+    }
+
+    public static long scanEnd() {
+        return store.scanEnd();
+    }
+
+    public static int count() {
+        return store.count();
+    }
+
+    public static Optional<Account> findAccount(String number) {
+        return store.findAccount(number);
+    }
+
+    /**
+     * Изменяет остаток счёта на {@code delta} копеек и возвращает новый остаток.
+     *
+     * @throws AccountNotFoundException   если счёта нет
+     * @throws InsufficientFundsException если для списания не хватает средств
+     * @throws BalanceOverflowException   если после пополнения остаток не поместится в long
+     */
+    public static long addToBalance(String number, long delta) {
+        return store.addToBalance(number, delta);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,224 @@
+package com.bankapp.repository;
+
+import com.bankapp.model.Account;
+import com.bankapp.model.Client;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Двоичный снимок клиентов и их счетов.
+ * <p>
+ * Формат: заголовок (магическое число, версия, число клиентов), затем записи подряд:
+ * id клиента (16 байт), логин, пароль, имя, телефон (каждое поле — длина u16 и UTF-8),
+ * число счетов (u16), для каждого счёта — id (16 байт), номер счёта, номер карты и остаток в копейках (long).
+ * Снимки версии 1 с остатком в рублях (double) читаются с переводом в копейки.
+ * <p>
+ * Запись идёт через {@link FileChannel} во временный файл, который атомарно заменяет прежний снимок.
+ * Чтение отображает файл в память окнами и разбирает записи подряд, время загрузки пропорционально размеру файла.
+ */
+public final class ClientSnapshot {
+    private static final long MAGIC = 0x414D534E41505331L; // "AMSNAPS1"
+    private static final int VERSION = 2;
+    private static final int VERSION_DOUBLE_BALANCE = 1;
+    private static final int HEADER_BYTES = 8 + 4 + 8;
+    private static final int MAX_FIELD_BYTES = 0xFFFF;
+    private static final int MAX_ACCOUNTS = 0xFFFF;
+
+    // Окно отображения и запас под одну запись у его конца
+    private static final long WINDOW_BYTES = 256L << 20;
+    private static final long RECORD_SLACK_BYTES = 16L << 20;
+
+    private ClientSnapshot() {
+    }
+
+    public record Stats(long clients, long bytes, long elapsedMillis) {
+    }
+
+    /**
+     * Записывает клиентов, которых выдаёт {@code source}, в файл {@code path}.
+     *
+     * @param source обход клиентов, например {@link ClientRepository#forEach(Consumer)}
+     */
+    public static Stats write(Path path, Consumer<Consumer<Client>> source) throws IOException {
+        long start = System.nanoTime();
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        long clients;
+        long bytes;
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Writer writer = new Writer(channel);
+            try {
+                source.accept(writer::write);
+                writer.flush();
+            } catch (SnapshotIOException e) {
+                throw e.getCause();
+            }
+            clients = writer.clients;
+            bytes = channel.position();
+
+            // Число клиентов известно только в конце — дописываем его в заголовок
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putLong(MAGIC).putInt(VERSION).putLong(clients).flip();
+            channel.write(header, 0);
+            channel.force(false);
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return new Stats(clients, bytes, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Читает снимок и передаёт каждого клиента в {@code sink}.
+     */
+    public static Stats read(Path path, Consumer<Client> sink) throws IOException {
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, WINDOW_BYTES));
+            if (size < HEADER_BYTES || buffer.getLong() != MAGIC) {
+                throw new IOException("Файл не является снимком клиентов: " + path);
+            }
+            int version = buffer.getInt();
+            if (version != VERSION && version != VERSION_DOUBLE_BALANCE) {
+                throw new IOException("Неподдерживаемая версия снимка: " + version);
+            }
+            long clients = buffer.getLong();
+
+            long windowStart = 0;
+            for (long i = 0; i < clients; i++) {
+                // Переотображаем окно, пока до его конца не меньше запаса на одну запись
+                if (buffer.remaining() < RECORD_SLACK_BYTES && windowStart + buffer.limit() < size) {
+                    windowStart += buffer.position();
+                    buffer = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, Math.min(size - windowStart, WINDOW_BYTES));
+                }
+                sink.accept(readClient(buffer, version));
+            }
+            return new Stats(clients, size, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private static Client readClient(ByteBuffer buffer, int version) {
+        String id = new UUID(buffer.getLong(), buffer.getLong()).toString();
+        String username = readString(buffer);
+        String password = readString(buffer);
+        String fullName = readString(buffer);
+        String phone = readString(buffer);
+        Client client = new Client(id, fullName, phone, username, password);
+        int accounts = buffer.getShort() & 0xFFFF;
+        List<Account> clientAccounts = client.getAccounts();
+        for (int a = 0; a < accounts; a++) {
+            String accountId = new UUID(buffer.getLong(), buffer.getLong()).toString();
+            String accountNumber = readString(buffer);
+            String cardNumber = readString(buffer);
+            long balance = version == VERSION_DOUBLE_BALANCE ? Math.round(buffer.getDouble() * 100) : buffer.getLong();
+            clientAccounts.add(new Account(accountId, accountNumber, cardNumber, balance));
+        }
+        return client;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getShort() & 0xFFFF;
+        String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.get(buffer.position(), bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static final class Writer {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+        private long clients;
+
+        Writer(FileChannel channel) throws IOException {
+            this.channel = channel;
+            // Заголовок с нулевым числом клиентов, итоговое число пишется после обхода
+            channel.position(HEADER_BYTES);
+        }
+
+        void write(Client client) {
+            List<Account> accounts = client.getAccounts();
+            if (accounts.size() > MAX_ACCOUNTS) {
+                throw new IllegalStateException("У клиента " + client.getUsername() + " больше " + MAX_ACCOUNTS + " счетов");
+            }
+            byte[][] fields = {utf8(client.getUsername()), utf8(client.getPassword()),
+                    utf8(client.getFullName()), utf8(client.getPhone())};
+            ensureRoom(16 + fields.length * (2 + MAX_FIELD_BYTES) + 2);
+            putUuid(client.getId());
+            for (byte[] field : fields) {
+                buffer.putShort((short) field.length).put(field);
+            }
+            buffer.putShort((short) accounts.size());
+            for (Account account : accounts) {
+                byte[] accountNumber = utf8(account.getAccountNumber());
+                byte[] cardNumber = utf8(account.getCardNumber());
+                ensureRoom(16 + 2 + accountNumber.length + 2 + cardNumber.length + 8);
+                putUuid(account.getId());
+                buffer.putShort((short) accountNumber.length).put(accountNumber);
+                buffer.putShort((short) cardNumber.length).put(cardNumber);
+                buffer.putLong(account.getBalance());
+            }
+            clients++;
+        }
+
+        private void putUuid(String id) {
+            UUID uuid = UUID.fromString(id);
+            buffer.putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits());
+        }
+
+        private void ensureRoom(int bytes) {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        void flush() {
+            buffer.flip();
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } catch (IOException e) {
+                throw new SnapshotIOException(e);
+            }
+            buffer.clear();
+        }
+    }
+
+    private static byte[] utf8(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_FIELD_BYTES) {
+            throw new IllegalStateException("Поле клиента длиннее " + MAX_FIELD_BYTES + " байт");
+        }
+        return bytes;
+    }
+
+    // Ошибка записи внутри обхода клиентов, разворачивается в IOException в write
+    private static final class SnapshotIOException extends RuntimeException {
+        SnapshotIOException(IOException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized IOException getCause() {
+            return (IOException) super.getCause();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.bankapp.repository;
+
+import com.bankapp.model.Account;
+import com.bankapp.model.BalanceOverflowException;
+import com.bankapp.model.Client;
+import com.bankapp.model.Credentials;
+import com.bankapp.model.InsufficientFundsException;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Способ хранения клиентов за {@link ClientRepository}.
+ */
+public interface ClientStore {
+
+    /**
+     * Сохраняет клиента.
+     *
+     * @throws DuplicateUsernameException если логин уже занят другим клиентом
+     */
+    Client save(Client client);
+
+    // Учётные данные для проверки пароля, без сборки полного клиента
+    Optional<Credentials> findCredentials(String username);
+
+    Optional<Client> findByUsername(String username);
+
+    Optional<Client> findById(String id);
+
+    Collection<Client> getAllClients();
+
+    /**
+     * Обходит клиентов без блокировки записи: клиенты, добавленные во время обхода, могут не попасть в него.
+     */
+    void forEach(Consumer<Client> action);
+
+    /**
+     * Выдаёт до {@code limit} клиентов в порядке регистрации, начиная с позиции {@code cursor}.
+     * Позиции не меняются при регистрации новых клиентов, поэтому по ним можно листать страницы.
+     *
+     * Страница может оказаться короче {@code limit}, если строка зарезервирована регистрацией, но ещё не записана:
+     * конец данных определяет {@link #scanEnd()}, а не размер страницы.
+     *
+     * @return позиция, с которой продолжать
+     */
+    long scan(long cursor, int limit, Consumer<Client> action);
+
+    // Позиция за последней зарезервированной строкой: пока scan возвращает меньшую, клиенты ещё есть
+    long scanEnd();
+
+    int count();
+
+    /**
+     * Счёт по номеру счёта или номеру карты с текущим остатком. Номер занимает первый сохранённый счёт с ним.
+     */
+    Optional<Account> findAccount(String number);
+
+    /**
+     * Изменяет остаток счёта с номером счёта или карты {@code number} на {@code delta} копеек без блокировок.
+     *
+     * @return новый остаток
+     * @throws AccountNotFoundException   если счёта нет
+     * @throws InsufficientFundsException если для списания не хватает средств
+     * @throws BalanceOverflowException   если после пополнения остаток не поместится в long
+     */
+    long addToBalance(String number, long delta);
+}
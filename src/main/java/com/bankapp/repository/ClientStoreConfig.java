@@ -0,0 +1,17 @@
+package com.bankapp.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ClientStoreConfig {
+
+    public ClientStoreConfig(@Value("${bankapp.repository.layout:heap}") String layout) {
+        switch (layout) {
+            case "heap" -> ClientRepository.use(new HeapClientStore());
+            case "compact" -> ClientRepository.use(new CompactClientStore());
+            default -> throw new IllegalArgumentException(
+                    "Неверный способ хранения bankapp.repository.layout: " + layout + ". Допустимые значения: heap, compact");
+        }
+    }
+}
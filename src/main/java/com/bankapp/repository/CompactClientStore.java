@@ -0,0 +1,518 @@
+package com.bankapp.repository;
+
+import com.bankapp.model.Account;
+import com.bankapp.model.Client;
+import com.bankapp.model.Credentials;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Компактное хранение клиентов в колоночных массивах примитивов.
+ * <p>
+ * Клиент — строка {@code row}: id хранится как два {@code long}, строковые поля лежат подряд в UTF-8
+ * в байтовой «арене» из блоков по 1 МБ, счета клиента — непрерывный диапазон строк таблицы счетов,
+ * где id — два {@code long}, а номера счёта и карты — шестнадцатеричные числа в {@code long}.
+ * Индексы по логину и по id — хеш-таблицы с открытой адресацией из {@code int[]}.
+ * <p>
+ * Объекты {@link Client} создаются только при выдаче клиента наружу; вход по логину и паролю
+ * читает учётные данные прямо из арены. Запись сериализуется {@link StampedLock}, чтение идёт
+ * без блокировки с проверкой штампа и повторяется под блокировкой чтения при конкурентной записи.
+ * <p>
+ * Счета сохраняются в момент {@link #save(Client)}: изменения списка счетов уже выданного клиента
+ * в хранилище не попадают. Остатки лежат в блоках по 64К, которые не копируются при росте таблицы, поэтому
+ * {@link #addToBalance(String, long)} меняет остаток CAS по элементу блока без блокировки записи. Id клиента и счёта должны быть UUID, номера счёта и карты —
+ * шестнадцатеричными строками из 12 и 16 цифр, как у счетов, создаваемых по умолчанию.
+ */
+public class CompactClientStore implements ClientStore {
+    private static final int CHUNK_BITS = 20;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int MAX_FIELD_BYTES = 0xFFFF;
+    private static final int ACCOUNT_NUMBER_DIGITS = 12;
+    private static final int CARD_NUMBER_DIGITS = 16;
+    private static final int BALANCE_CHUNK_BITS = 16;
+    private static final int BALANCE_CHUNK_SIZE = 1 << BALANCE_CHUNK_BITS;
+
+    private static final VarHandle BALANCES = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final StampedLock lock = new StampedLock();
+
+    // Колонки клиентов
+    private long[] idMsb;
+    private long[] idLsb;
+    private long[] fields;          // адрес записи «логин, пароль, имя, телефон» в арене
+    private int[] usernameHash;
+    private int[] firstAccount;     // счета строки row: [firstAccount[row], firstAccount[row + 1])
+    private volatile int size;
+
+    // Колонки счетов
+    private long[] accountIdMsb;
+    private long[] accountIdLsb;
+    private long[] accountNumber;
+    private long[] cardNumber;
+    private volatile long[][] balances = new long[16][];    // остатки в копейках блоками по 64К
+    private int accountSize;
+
+    // Арена строковых полей
+    private byte[][] arena = new byte[16][];
+    private long arenaPos;
+
+    // Индексы: номер строки + 1, 0 — пустая ячейка
+    private int[] byUsername;
+    private int[] byId;
+    private int[] byAccountNumber;  // номер строки счёта + 1
+    private int[] byCardNumber;
+
+    public CompactClientStore() {
+        this(1024);
+    }
+
+    public CompactClientStore(int initialCapacity) {
+        int capacity = Math.max(16, initialCapacity);
+        idMsb = new long[capacity];
+        idLsb = new long[capacity];
+        fields = new long[capacity];
+        usernameHash = new int[capacity];
+        firstAccount = new int[capacity + 1];
+        accountIdMsb = new long[capacity];
+        accountIdLsb = new long[capacity];
+        accountNumber = new long[capacity];
+        cardNumber = new long[capacity];
+        byUsername = new int[indexCapacity(capacity)];
+        byId = new int[indexCapacity(capacity)];
+        byAccountNumber = new int[indexCapacity(capacity)];
+        byCardNumber = new int[indexCapacity(capacity)];
+    }
+
+    @Override
+    public Client save(Client client) {
+        UUID id = UUID.fromString(client.getId());
+        byte[][] encoded = {
+                utf8(client.getUsername()), utf8(client.getPassword()), utf8(client.getFullName()), utf8(client.getPhone())};
+        List<Account> accounts = client.getAccounts();
+        // Все номера разбираются до блокировки: исключение после первой записи оставило бы в массивах
+        // строки счетов без клиента, и следующий клиент забрал бы их в свой диапазон
+        int accountCount = accounts.size();
+        long[] accountMsb = new long[accountCount];
+        long[] accountLsb = new long[accountCount];
+        long[] numbers = new long[accountCount];
+        long[] cards = new long[accountCount];
+        for (int a = 0; a < accountCount; a++) {
+            Account account = accounts.get(a);
+            UUID accountId = UUID.fromString(account.getId());
+            accountMsb[a] = accountId.getMostSignificantBits();
+            accountLsb[a] = accountId.getLeastSignificantBits();
+            numbers[a] = Long.parseUnsignedLong(account.getAccountNumber(), 16);
+            cards[a] = Long.parseUnsignedLong(account.getCardNumber(), 16);
+        }
+
+        long stamp = lock.writeLock();
+        try {
+            if (findRow(client.getUsername()) >= 0) {
+                throw new DuplicateUsernameException(client.getUsername());
+            }
+            int row = size;
+            ensureClientCapacity(row + 1);
+            ensureAccountCapacity(accountSize + accountCount);
+
+            idMsb[row] = id.getMostSignificantBits();
+            idLsb[row] = id.getLeastSignificantBits();
+            fields[row] = append(encoded);
+            usernameHash[row] = client.getUsername().hashCode();
+            for (int a = 0; a < accountCount; a++) {
+                accountIdMsb[accountSize] = accountMsb[a];
+                accountIdLsb[accountSize] = accountLsb[a];
+                accountNumber[accountSize] = numbers[a];
+                cardNumber[accountSize] = cards[a];
+                balanceChunk(accountSize)[accountSize & (BALANCE_CHUNK_SIZE - 1)] = accounts.get(a).getBalance();
+                insert(byAccountNumber, numberHash(accountNumber[accountSize]), accountSize);
+                insert(byCardNumber, numberHash(cardNumber[accountSize]), accountSize);
+                accountSize++;
+            }
+            firstAccount[row + 1] = accountSize;
+
+            insert(byUsername, usernameHash[row], row);
+            insert(byId, idHash(idMsb[row], idLsb[row]), row);
+            size = row + 1;
+            return client;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public Optional<Credentials> findCredentials(String username) {
+        return read(() -> {
+            int row = findRow(username);
+            if (row < 0) {
+                return Optional.empty();
+            }
+            long address = fields[row];
+            byte[] chunk = arena[chunk(address)];
+            int pos = offset(address);
+            pos += 2 + length(chunk, pos);
+            String password = new String(chunk, pos + 2, length(chunk, pos), StandardCharsets.UTF_8);
+            return Optional.of(new Credentials(new UUID(idMsb[row], idLsb[row]).toString(), username, password));
+        });
+    }
+
+    @Override
+    public Optional<Client> findByUsername(String username) {
+        return read(() -> {
+            int row = findRow(username);
+            return row < 0 ? Optional.empty() : Optional.of(materialize(row));
+        });
+    }
+
+    @Override
+    public Optional<Client> findById(String id) {
+        UUID uuid;
+        try {
+            uuid = UUID.fromString(id);
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        return read(() -> {
+            int[] index = byId;
+            int mask = index.length - 1;
+            for (int slot = idHash(msb, lsb) & mask; index[slot] != 0; slot = (slot + 1) & mask) {
+                int row = index[slot] - 1;
+                if (idMsb[row] == msb && idLsb[row] == lsb) {
+                    return Optional.of(materialize(row));
+                }
+            }
+            return Optional.empty();
+        });
+    }
+
+    @Override
+    public Collection<Client> getAllClients() {
+        long stamp = lock.readLock();
+        try {
+            List<Client> clients = new ArrayList<>(size);
+            for (int row = 0; row < size; row++) {
+                clients.add(materialize(row));
+            }
+            return clients;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Строки только дописываются, поэтому каждую можно прочитать отдельно, не блокируя запись на весь обход
+    @Override
+    public void forEach(Consumer<Client> action) {
+        int end = size;
+        for (int row = 0; row < end; row++) {
+            int current = row;
+            action.accept(read(() -> materialize(current)));
+        }
+    }
+
+    @Override
+    public long scan(long cursor, int limit, Consumer<Client> action) {
+        long row = Math.max(0, cursor);
+        int end = size;
+        for (int emitted = 0; emitted < limit && row < end; emitted++, row++) {
+            int current = (int) row;
+            action.accept(read(() -> materialize(current)));
+        }
+        return row;
+    }
+
+    @Override
+    public long scanEnd() {
+        return size;
+    }
+
+    @Override
+    public int count() {
+        return size;
+    }
+
+    @Override
+    public Optional<Account> findAccount(String number) {
+        return read(() -> {
+            int a = findAccountRow(number);
+            return a < 0 ? Optional.empty() : Optional.of(account(a));
+        });
+    }
+
+    @Override
+    public long addToBalance(String number, long delta) {
+        // Поиск может повториться под блокировкой, поэтому сам CAS — после него, один раз
+        int a = read(() -> findAccountRow(number));
+        if (a < 0) {
+            throw new AccountNotFoundException(number);
+        }
+        long[] chunk = balances[a >>> BALANCE_CHUNK_BITS];
+        int slot = a & (BALANCE_CHUNK_SIZE - 1);
+        long current;
+        long updated;
+        do {
+            current = (long) BALANCES.getVolatile(chunk, slot);
+            updated = Account.apply(number, current, delta);
+        } while (!BALANCES.weakCompareAndSet(chunk, slot, current, updated));
+        return updated;
+    }
+
+    // Чтение без блокировки; при конкурентной записи повторяется под блокировкой чтения
+    private <T> T read(Supplier<T> action) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                T result = action.get();
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException ignored) {
+                // Несогласованное состояние во время записи — повторяем под блокировкой
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Строка счёта по номеру счёта (12 цифр) или карты (16 цифр), -1 — не найден
+    private int findAccountRow(String number) {
+        int[] index;
+        long[] numbers;
+        if (number.length() == ACCOUNT_NUMBER_DIGITS) {
+            index = byAccountNumber;
+            numbers = accountNumber;
+        } else if (number.length() == CARD_NUMBER_DIGITS) {
+            index = byCardNumber;
+            numbers = cardNumber;
+        } else {
+            return -1;
+        }
+        long value;
+        try {
+            value = Long.parseUnsignedLong(number, 16);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        int mask = index.length - 1;
+        for (int slot = numberHash(value) & mask; index[slot] != 0; slot = (slot + 1) & mask) {
+            int a = index[slot] - 1;
+            if (numbers[a] == value) {
+                return a;
+            }
+        }
+        return -1;
+    }
+
+    private Account account(int a) {
+        return new Account(new UUID(accountIdMsb[a], accountIdLsb[a]).toString(), hex(accountNumber[a], ACCOUNT_NUMBER_DIGITS),
+                hex(cardNumber[a], CARD_NUMBER_DIGITS), (long) BALANCES.getVolatile(balances[a >>> BALANCE_CHUNK_BITS],
+                a & (BALANCE_CHUNK_SIZE - 1)));
+    }
+
+    private int findRow(String username) {
+        int hash = username.hashCode();
+        int[] index = byUsername;
+        int mask = index.length - 1;
+        for (int slot = hash & mask; index[slot] != 0; slot = (slot + 1) & mask) {
+            int row = index[slot] - 1;
+            if (usernameHash[row] == hash && usernameEquals(row, username)) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    // Сравнение логина без декодирования строки для ASCII — основной случай на пути login
+    private boolean usernameEquals(int row, String username) {
+        long address = fields[row];
+        byte[] chunk = arena[chunk(address)];
+        int pos = offset(address);
+        int length = length(chunk, pos);
+        pos += 2;
+        if (length == username.length()) {
+            for (int i = 0; i < length; i++) {
+                byte b = chunk[pos + i];
+                if (b < 0) {
+                    return new String(chunk, pos, length, StandardCharsets.UTF_8).equals(username);
+                }
+                if (b != username.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return length > username.length() && new String(chunk, pos, length, StandardCharsets.UTF_8).equals(username);
+    }
+
+    private Client materialize(int row) {
+        long address = fields[row];
+        byte[] chunk = arena[chunk(address)];
+        int pos = offset(address);
+        String[] values = new String[4];
+        for (int i = 0; i < values.length; i++) {
+            int length = length(chunk, pos);
+            values[i] = new String(chunk, pos + 2, length, StandardCharsets.UTF_8);
+            pos += 2 + length;
+        }
+        Client client = new Client(new UUID(idMsb[row], idLsb[row]).toString(), values[2], values[3], values[0], values[1]);
+        for (int a = firstAccount[row]; a < firstAccount[row + 1]; a++) {
+            client.getAccounts().add(account(a));
+        }
+        return client;
+    }
+
+    // Записывает поля подряд, каждое с двухбайтовой длиной; запись не пересекает границу блока
+    private long append(byte[][] encoded) {
+        int total = 0;
+        for (byte[] value : encoded) {
+            total += 2 + value.length;
+        }
+        int chunkIndex = chunk(arenaPos);
+        int pos = offset(arenaPos);
+        if (arena[chunkIndex] == null || pos + total > CHUNK_SIZE) {
+            if (arena[chunkIndex] != null) {
+                chunkIndex++;
+                pos = 0;
+            }
+            if (chunkIndex == arena.length) {
+                arena = Arrays.copyOf(arena, arena.length * 2);
+            }
+            arena[chunkIndex] = new byte[CHUNK_SIZE];
+        }
+        long address = ((long) chunkIndex << CHUNK_BITS) | pos;
+        byte[] chunk = arena[chunkIndex];
+        for (byte[] value : encoded) {
+            chunk[pos] = (byte) (value.length >>> 8);
+            chunk[pos + 1] = (byte) value.length;
+            System.arraycopy(value, 0, chunk, pos + 2, value.length);
+            pos += 2 + value.length;
+        }
+        arenaPos = ((long) chunkIndex << CHUNK_BITS) | pos;
+        return address;
+    }
+
+    private void ensureClientCapacity(int required) {
+        if (required <= idMsb.length) {
+            return;
+        }
+        int capacity = idMsb.length * 2;
+        idMsb = Arrays.copyOf(idMsb, capacity);
+        idLsb = Arrays.copyOf(idLsb, capacity);
+        fields = Arrays.copyOf(fields, capacity);
+        usernameHash = Arrays.copyOf(usernameHash, capacity);
+        firstAccount = Arrays.copyOf(firstAccount, capacity + 1);
+
+        // Новые индексы строятся целиком и подменяются одной записью, чтобы читатель не видел их заполнение
+        int[] newByUsername = new int[indexCapacity(capacity)];
+        int[] newById = new int[indexCapacity(capacity)];
+        for (int row = 0; row < size; row++) {
+            insert(newByUsername, usernameHash[row], row);
+            insert(newById, idHash(idMsb[row], idLsb[row]), row);
+        }
+        byUsername = newByUsername;
+        byId = newById;
+    }
+
+    private void ensureAccountCapacity(int required) {
+        if (required <= accountIdMsb.length) {
+            return;
+        }
+        int capacity = Math.max(required, accountIdMsb.length * 2);
+        accountIdMsb = Arrays.copyOf(accountIdMsb, capacity);
+        accountIdLsb = Arrays.copyOf(accountIdLsb, capacity);
+        accountNumber = Arrays.copyOf(accountNumber, capacity);
+        cardNumber = Arrays.copyOf(cardNumber, capacity);
+
+        int[] newByAccountNumber = new int[indexCapacity(capacity)];
+        int[] newByCardNumber = new int[indexCapacity(capacity)];
+        for (int a = 0; a < accountSize; a++) {
+            insert(newByAccountNumber, numberHash(accountNumber[a]), a);
+            insert(newByCardNumber, numberHash(cardNumber[a]), a);
+        }
+        byAccountNumber = newByAccountNumber;
+        byCardNumber = newByCardNumber;
+    }
+
+    // Блок остатков для строки счёта a; блоки не переносятся, растёт только их оглавление
+    private long[] balanceChunk(int a) {
+        int index = a >>> BALANCE_CHUNK_BITS;
+        long[][] chunks = balances;
+        if (index == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunks.length * 2);
+        }
+        if (chunks[index] == null) {
+            chunks[index] = new long[BALANCE_CHUNK_SIZE];
+        }
+        balances = chunks;
+        return chunks[index];
+    }
+
+    private static void insert(int[] index, int hash, int row) {
+        int mask = index.length - 1;
+        int slot = hash & mask;
+        while (index[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        index[slot] = row + 1;
+    }
+
+    // Размер индекса — степень двойки не меньше удвоенной ёмкости, заполнение не выше 50%
+    private static int indexCapacity(int capacity) {
+        return Integer.highestOneBit(capacity * 2 - 1) << 1;
+    }
+
+    private static int idHash(long msb, long lsb) {
+        long h = (msb ^ lsb) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static int numberHash(long number) {
+        long h = number * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static int chunk(long address) {
+        return (int) (address >>> CHUNK_BITS);
+    }
+
+    private static int offset(long address) {
+        return (int) (address & (CHUNK_SIZE - 1));
+    }
+
+    private static int length(byte[] chunk, int pos) {
+        return ((chunk[pos] & 0xFF) << 8) | (chunk[pos + 1] & 0xFF);
+    }
+
+    private static byte[] utf8(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_FIELD_BYTES) {
+            throw new IllegalArgumentException("Поле клиента длиннее " + MAX_FIELD_BYTES + " байт");
+        }
+        return bytes;
+    }
+
+    private static String hex(long value, int digits) {
+        char[] out = new char[digits];
+        for (int i = digits - 1; i >= 0; i--) {
+            out[i] = Character.forDigit((int) (value & 0xF), 16);
+            value >>>= 4;
+        }
+        return new String(out);
+    }
+}
@@ -0,0 +1,17 @@
+package com.bankapp.repository;
+
+/**
+ * Попытка зарегистрировать клиента с уже занятым логином.
+ */
+public class DuplicateUsernameException extends RuntimeException {
+    private final String username;
+
+    public DuplicateUsernameException(String username) {
+        super("Пользователь с логином " + username + " уже зарегистрирован");
+        this.username = username;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+}
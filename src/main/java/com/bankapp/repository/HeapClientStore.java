@@ -0,0 +1,130 @@
+package com.bankapp.repository;
+
+import com.bankapp.model.Account;
+import com.bankapp.model.Client;
+import com.bankapp.model.Credentials;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Хранение клиентов объектами в куче с индексами по id и по логину.
+ * <p>
+ * Оба индекса — {@link ConcurrentHashMap}, поэтому регистрация безопасна из параллельных запросов,
+ * а поиск по логину на пути login выполняется за O(1) независимо от числа клиентов.
+ * Логин уникален: его занимает первый зарегистрированный клиент.
+ * <p>
+ * Для постраничного обхода клиенты дополнительно дописываются в журнал строк из блоков по 64К ссылок:
+ * номер строки — позиция клиента в порядке регистрации.
+ * <p>
+ * Счета индексируются по номеру счёта и номеру карты, остаток меняется атомарно в самом объекте {@link Account}.
+ */
+public class HeapClientStore implements ClientStore {
+    private final Map<String, Client> clients = new ConcurrentHashMap<>();
+    private final Map<String, Client> clientsByUsername = new ConcurrentHashMap<>();
+    private final Map<String, Account> accountsByNumber = new ConcurrentHashMap<>();
+    private final Map<String, Account> accountsByCard = new ConcurrentHashMap<>();
+
+    private static final int ROW_CHUNK_BITS = 16;
+    private static final int ROW_CHUNK_SIZE = 1 << ROW_CHUNK_BITS;
+    private final AtomicReferenceArray<AtomicReferenceArray<Client>> rows = new AtomicReferenceArray<>(1 << 15);
+    private final AtomicInteger rowCount = new AtomicInteger();
+
+    @Override
+    public Client save(Client client) {
+        Client existing = clientsByUsername.putIfAbsent(client.getUsername(), client);
+        if (existing != null && existing != client) {
+            throw new DuplicateUsernameException(client.getUsername());
+        }
+        clients.put(client.getId(), client);
+        for (Account account : client.getAccounts()) {
+            accountsByNumber.putIfAbsent(account.getAccountNumber(), account);
+            accountsByCard.putIfAbsent(account.getCardNumber(), account);
+        }
+        if (existing == null) {
+            int row = rowCount.getAndIncrement();
+            rowChunk(row).set(row & (ROW_CHUNK_SIZE - 1), client);
+        }
+        return client;
+    }
+
+    @Override
+    public Optional<Credentials> findCredentials(String username) {
+        Client client = clientsByUsername.get(username);
+        return client == null
+                ? Optional.empty()
+                : Optional.of(new Credentials(client.getId(), client.getUsername(), client.getPassword()));
+    }
+
+    @Override
+    public Optional<Client> findByUsername(String username) {
+        return Optional.ofNullable(clientsByUsername.get(username));
+    }
+
+    @Override
+    public Optional<Client> findById(String id) {
+        return Optional.ofNullable(clients.get(id));
+    }
+
+    @Override
+    public Collection<Client> getAllClients() {
+        return clients.values();
+    }
+
+    @Override
+    public void forEach(Consumer<Client> action) {
+        clients.values().forEach(action);
+    }
+
+    @Override
+    public long scan(long cursor, int limit, Consumer<Client> action) {
+        long row = Math.max(0, cursor);
+        int end = rowCount.get();
+        for (int emitted = 0; emitted < limit && row < end; emitted++, row++) {
+            AtomicReferenceArray<Client> chunk = rows.get((int) (row >>> ROW_CHUNK_BITS));
+            Client client = chunk == null ? null : chunk.get((int) (row & (ROW_CHUNK_SIZE - 1)));
+            if (client == null) {
+                // Строка зарезервирована, но ещё не записана — продолжим с неё на следующей странице
+                break;
+            }
+            action.accept(client);
+        }
+        return row;
+    }
+
+    @Override
+    public long scanEnd() {
+        return rowCount.get();
+    }
+
+    private AtomicReferenceArray<Client> rowChunk(int row) {
+        int index = row >>> ROW_CHUNK_BITS;
+        AtomicReferenceArray<Client> chunk = rows.get(index);
+        if (chunk == null) {
+            rows.compareAndSet(index, null, new AtomicReferenceArray<>(ROW_CHUNK_SIZE));
+            chunk = rows.get(index);
+        }
+        return chunk;
+    }
+
+    @Override
+    public int count() {
+        return clients.size();
+    }
+
+    @Override
+    public Optional<Account> findAccount(String number) {
+        Account account = accountsByNumber.get(number);
+        return Optional.ofNullable(account != null ? account : accountsByCard.get(number));
+    }
+
+    @Override
+    public long addToBalance(String number, long delta) {
+        return findAccount(number).orElseThrow(() -> new AccountNotFoundException(number)).add(delta);
+    }
+}
@@ -0,0 +1,67 @@
+package com.bankapp.service;
+
+import com.bankapp.model.Account;
+import com.bankapp.model.BalanceOverflowException;
+import com.bankapp.repository.AccountNotFoundException;
+import com.bankapp.repository.ClientRepository;
+import org.springframework.stereotype.Service;
+
+/**
+ * Операции с остатками счетов. Счёт задаётся номером счёта или номером карты, суммы — в копейках.
+ * <p>
+ * Каждое списание и пополнение — одна атомарная операция над остатком без блокировок, поэтому одновременные
+ * списания с одного счёта не теряются и не уводят его в минус. Перевод — списание, затем пополнение: между ними
+ * сумма уже списана, но ещё не зачислена, а в сумме по счетам деньги не появляются и не пропадают.
+ */
+@Service
+public class AccountService {
+    // Предел суммы одной операции — 10^15 копеек; переполнение остатка проверяет сам счёт
+    static final long MAX_AMOUNT = 1_000_000_000_000_000L;
+
+    // Остаток счёта после списания или пополнения
+    public record BalanceChange(String number, long amount, long balance) {
+    }
+
+    public record Transfer(String from, String to, long amount, long fromBalance, long toBalance) {
+    }
+
+    public Account find(String number) {
+        return ClientRepository.findAccount(number).orElseThrow(() -> new AccountNotFoundException(number));
+    }
+
+    public BalanceChange debit(String number, long amount) {
+        return new BalanceChange(number, amount, ClientRepository.addToBalance(number, -validate(amount)));
+    }
+
+    public BalanceChange credit(String number, long amount) {
+        return new BalanceChange(number, amount, ClientRepository.addToBalance(number, validate(amount)));
+    }
+
+    // Переводит amount копеек со счёта from на счёт to
+    public Transfer transfer(String from, String to, long amount) {
+        validate(amount);
+        Account source = find(from);
+        // Счёт зачисления проверяется до списания: счета не удаляются, поэтому после списания зачисление не откажет
+        Account target = find(to);
+        if (source.getAccountNumber().equals(target.getAccountNumber())) {
+            throw new IllegalArgumentException("Счета списания и зачисления совпадают");
+        }
+        long fromBalance = ClientRepository.addToBalance(from, -amount);
+        long toBalance;
+        try {
+            toBalance = ClientRepository.addToBalance(to, amount);
+        } catch (BalanceOverflowException e) {
+            // Зачисление не прошло — возвращаем списанное, чтобы деньги не пропали
+            ClientRepository.addToBalance(from, amount);
+            throw e;
+        }
+        return new Transfer(from, to, amount, fromBalance, toBalance);
+    }
+
+    private static long validate(long amount) {
+        if (amount <= 0 || amount > MAX_AMOUNT) {
+            throw new IllegalArgumentException("Сумма должна быть от 1 до " + MAX_AMOUNT + " копеек");
+        }
+        return amount;
+    }
+}
@@ -1,109 +1,261 @@
 package com.bankapp.service;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
 import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
 
+/**
+ * Метрики запросов заглушки.
+ * <p>
+ * Все запросы пишутся в один таймер {@code bankapp.auth.request} с тегами {@code endpoint} и {@code outcome}
+ * ({@code success} или код ответа: 400, 401, 409, 500). Число вызовов — это count таймера, отдельные счётчики не нужны.
+ * Для запросов с задержкой дополнительно пишутся {@code bankapp.auth.request.delay} — заданная задержка
+ * и {@code bankapp.auth.request.processing} — время формирования ответа после неё.
+ * <p>
+ * Таймеры создаются заранее и кешируются по эндпоинту и коду ответа, поэтому запись не ищет метр в реестре
+ * и не собирает теги на каждый запрос. SLO-бакеты и клиентские перцентили задаются свойствами
+ * {@code bankapp.metrics.*}, каждый опубликованный перцентиль увеличивает стоимость записи.
+ * <p>
+ * Пакетные вызовы учитываются отдельно от одиночных: таймер {@code bankapp.auth.batch} на весь пакет,
+ * размер пакета {@code bankapp.auth.batch.size} и счётчик элементов {@code bankapp.auth.batch.items} по исходу.
+ * <p>
+ * Рядом с таймером каждый запрос пишется в интервальную гистограмму эндпоинта ({@link IntervalStats}),
+ * из которой {@link LiveStatsService} раз в секунду собирает снимки для живого потока.
+ */
 @Component
 public class AuthMetricsService {
 
-    // Счётчики
-    private final Counter setTimeoutCalls;
-    private final Counter registerCalls;
-    private final Counter loginCalls;
-    private final Counter logoutCalls;
-    private final Counter loggedUserCalls;
-    private final Counter isLoggedCalls;
-    private final Counter getAllClientsCalls;
-
-    // Таймеры
-    private final Timer setTimeoutTimer;
-    private final Timer registerTimer;
-    private final Timer loginTimer;
-    private final Timer logoutTimer;
-    private final Timer loggedUserTimer;
-    private final Timer isLoggedTimer;
-    private final Timer getAllClientsTimer;
-
-    // Gauge для таймаутов
-    private final ConcurrentMap<String, Integer> timeoutValues = new ConcurrentHashMap<>();
-
-    public AuthMetricsService(MeterRegistry registry) {
-        // Инициализация счетчиков
-        this.setTimeoutCalls = Counter.builder("bankapp.auth.timeout.set.calls")
-                .description("Количество вызовов установки таймаута").register(registry);
-        this.registerCalls = Counter.builder("bankapp.auth.register.calls")
-                .description("Количество вызовов регистрации").register(registry);
-        this.loginCalls = Counter.builder("bankapp.auth.login.calls")
-                .description("Количество вызовов авторизации").register(registry);
-        this.logoutCalls = Counter.builder("bankapp.auth.logout.calls")
-                .description("Количество вызовов выхода из системы").register(registry);
-        this.loggedUserCalls = Counter.builder("bankapp.auth.logged_user.calls")
-                .description("Количество вызовов получения текущего пользователя").register(registry);
-        this.isLoggedCalls = Counter.builder("bankapp.auth.is_logged.calls")
-                .description("Количество вызовов проверки статуса авторизации").register(registry);
-        this.getAllClientsCalls = Counter.builder("bankapp.auth.clients.all.calls")
-                .description("Количество вызовов получения списка пользователей").register(registry);
-
-        // Инициализация таймеров
-        this.setTimeoutTimer = Timer.builder("bankapp.auth.timeout.set.duration")
-                .description("Время выполнения установки таймаута").register(registry);
-        this.registerTimer = Timer.builder("bankapp.auth.register.duration")
-                .description("Время выполнения запроса регистрации").register(registry);
-        this.loginTimer = Timer.builder("bankapp.auth.login.duration")
-                .description("Время выполнения запроса авторизации").register(registry);
-        this.logoutTimer = Timer.builder("bankapp.auth.logout.duration")
-                .description("Время выполнения запроса выхода").register(registry);
-        this.loggedUserTimer = Timer.builder("bankapp.auth.logged_user.duration")
-                .description("Время выполнения запроса получения пользователя").register(registry);
-        this.isLoggedTimer = Timer.builder("bankapp.auth.is_logged.duration")
-                .description("Время выполнения запроса проверки статуса").register(registry);
-        this.getAllClientsTimer = Timer.builder("bankapp.auth.clients.all.duration")
-                .description("Время выполнения запроса получения списка пользователей").register(registry);
-
-        // Инициализация Gauge для таймаутов
-        Gauge.builder("bankapp.auth.timeout.login", timeoutValues, map -> map.getOrDefault("login", 0) / 1000.0)
-                .description("Текущий таймаут для login (в секундах)").register(registry);
-        Gauge.builder("bankapp.auth.timeout.logout", timeoutValues, map -> map.getOrDefault("logout", 0) / 1000.0)
-                .description("Текущий таймаут для logout (в секундах)").register(registry);
-        Gauge.builder("bankapp.auth.timeout.logged_user", timeoutValues, map -> map.getOrDefault("loggedUser", 0) / 1000.0)
-                .description("Текущий таймаут для loggedUser (в секундах)").register(registry);
-        Gauge.builder("bankapp.auth.timeout.is_logged", timeoutValues, map -> map.getOrDefault("isLogged", 0) / 1000.0)
-                .description("Текущий таймаут для isLogged (в секундах)").register(registry);
-        Gauge.builder("bankapp.auth.timeout.register", timeoutValues, map -> map.getOrDefault("register", 0) / 1000.0)
-                .description("Текущий таймаут для register (в секундах)").register(registry);
-
-        // Установка начальных значений
-        timeoutValues.put("login", 0);
-        timeoutValues.put("logout", 0);
-        timeoutValues.put("loggedUser", 0);
-        timeoutValues.put("isLogged", 0);
-        timeoutValues.put("register", 0);
+    public static final String REQUEST_TIMER = "bankapp.auth.request";
+    public static final String DELAY_TIMER = "bankapp.auth.request.delay";
+    public static final String PROCESSING_TIMER = "bankapp.auth.request.processing";
+    public static final String BATCH_TIMER = "bankapp.auth.batch";
+
+    private final MeterRegistry registry;
+    private final Duration[] slo;
+    private final double[] percentiles;
+    private final boolean percentileHistogram;
+
+    private final RequestMetrics setTimeoutMetrics;
+    private final RequestMetrics registerMetrics;
+    private final RequestMetrics loginMetrics;
+    private final RequestMetrics logoutMetrics;
+    private final RequestMetrics loggedUserMetrics;
+    private final RequestMetrics isLoggedMetrics;
+    private final RequestMetrics getAllClientsMetrics;
+    private final RequestMetrics streamClientsMetrics;
+    private final RequestMetrics accountMetrics;
+    private final RequestMetrics debitMetrics;
+    private final RequestMetrics creditMetrics;
+    private final RequestMetrics transferMetrics;
+    private final BatchMetrics loginBatchMetrics;
+    private final BatchMetrics registerBatchMetrics;
+
+    public AuthMetricsService(MeterRegistry registry,
+                              @Value("${bankapp.metrics.slo:10ms,50ms,100ms,500ms,1s,5s}") Duration[] slo,
+                              @Value("${bankapp.metrics.percentiles:}") double[] percentiles,
+                              @Value("${bankapp.metrics.percentile-histogram:false}") boolean percentileHistogram) {
+        this.registry = registry;
+        this.slo = slo.clone();
+        this.percentiles = percentiles.clone();
+        this.percentileHistogram = percentileHistogram;
+
+        this.setTimeoutMetrics = new RequestMetrics("setTimeout", false);
+        this.registerMetrics = new RequestMetrics("register", true);
+        this.loginMetrics = new RequestMetrics("login", true);
+        this.logoutMetrics = new RequestMetrics("logout", true);
+        this.loggedUserMetrics = new RequestMetrics("loggedUser", true);
+        this.isLoggedMetrics = new RequestMetrics("isLogged", true);
+        this.getAllClientsMetrics = new RequestMetrics("clients", false);
+        this.streamClientsMetrics = new RequestMetrics("clientsStream", false);
+        this.accountMetrics = new RequestMetrics("account", false);
+        this.debitMetrics = new RequestMetrics("debit", false);
+        this.creditMetrics = new RequestMetrics("credit", false);
+        this.transferMetrics = new RequestMetrics("transfer", false);
+        this.loginBatchMetrics = new BatchMetrics("login");
+        this.registerBatchMetrics = new BatchMetrics("register");
     }
 
     // Геттеры
-    public Counter getSetTimeoutCalls() { return setTimeoutCalls; }
-    public Counter getRegisterCalls() { return registerCalls; }
-    public Counter getLoginCalls() { return loginCalls; }
-    public Counter getLogoutCalls() { return logoutCalls; }
-    public Counter getLoggedUserCalls() { return loggedUserCalls; }
-    public Counter getIsLoggedCalls() { return isLoggedCalls; }
-    public Counter getGetAllClientsCalls() { return getAllClientsCalls; }
-
-    public Timer getSetTimeoutTimer() { return setTimeoutTimer; }
-    public Timer getRegisterTimer() { return registerTimer; }
-    public Timer getLoginTimer() { return loginTimer; }
-    public Timer getLogoutTimer() { return logoutTimer; }
-    public Timer getLoggedUserTimer() { return loggedUserTimer; }
-    public Timer getIsLoggedTimer() { return isLoggedTimer; }
-    public Timer getGetAllClientsTimer() { return getAllClientsTimer; }
-
-    public void updateTimeout(String key, int valueMillis) {
-        timeoutValues.put(key, valueMillis);
+    public RequestMetrics getSetTimeoutMetrics() { return setTimeoutMetrics; }
+    public RequestMetrics getRegisterMetrics() { return registerMetrics; }
+    public RequestMetrics getLoginMetrics() { return loginMetrics; }
+    public RequestMetrics getLogoutMetrics() { return logoutMetrics; }
+    public RequestMetrics getLoggedUserMetrics() { return loggedUserMetrics; }
+    public RequestMetrics getIsLoggedMetrics() { return isLoggedMetrics; }
+    public RequestMetrics getGetAllClientsMetrics() { return getAllClientsMetrics; }
+    public RequestMetrics getStreamClientsMetrics() { return streamClientsMetrics; }
+    public RequestMetrics getAccountMetrics() { return accountMetrics; }
+    public RequestMetrics getDebitMetrics() { return debitMetrics; }
+    public RequestMetrics getCreditMetrics() { return creditMetrics; }
+    public RequestMetrics getTransferMetrics() { return transferMetrics; }
+    public BatchMetrics getLoginBatchMetrics() { return loginBatchMetrics; }
+    public BatchMetrics getRegisterBatchMetrics() { return registerBatchMetrics; }
+
+    // Все одиночные эндпоинты в порядке объявления
+    public List<RequestMetrics> getRequestMetrics() {
+        return List.of(setTimeoutMetrics, registerMetrics, loginMetrics, logoutMetrics, loggedUserMetrics, isLoggedMetrics,
+                getAllClientsMetrics, streamClientsMetrics, accountMetrics, debitMetrics, creditMetrics, transferMetrics);
+    }
+
+    public <T> void registerGauge(String name, String description, T state, ToDoubleFunction<T> value) {
+        registerGauge(name, description, Tags.empty(), state, value);
+    }
+
+    public <T> void registerGauge(String name, String description, Tags tags, T state, ToDoubleFunction<T> value) {
+        Gauge.builder(name, state, value).description(description).tags(tags).register(registry);
+    }
+
+    public <T> void registerCounter(String name, String description, T state, ToDoubleFunction<T> value) {
+        registerCounter(name, description, Tags.empty(), state, value);
+    }
+
+    public <T> void registerCounter(String name, String description, Tags tags, T state, ToDoubleFunction<T> value) {
+        FunctionCounter.builder(name, state, value).description(description).tags(tags).register(registry);
+    }
+
+    // Таймер с теми же SLO-бакетами и перцентилями, что у запросов
+    public Timer registerTimer(String name, String description, Tags tags) {
+        return timer(name, description, tags);
+    }
+
+    private Timer timer(String name, String description, Tags tags) {
+        return Timer.builder(name)
+                .description(description)
+                .tags(tags)
+                .serviceLevelObjectives(slo)
+                .publishPercentiles(percentiles)
+                .publishPercentileHistogram(percentileHistogram)
+                .maximumExpectedValue(Duration.ofMinutes(10))
+                .register(registry);
+    }
+
+    static String outcome(int status) {
+        return status < 400 ? "success" : String.valueOf(status);
+    }
+
+    /**
+     * Таймеры одного эндпоинта. Таймеры для частых исходов создаются сразу, для остальных кодов — при первом ответе.
+     * Таймеры задержки и формирования ответа есть только у эндпоинтов с задержкой.
+     */
+    public final class RequestMetrics {
+        private final String endpoint;
+        private final Timer success;
+        private final Timer badRequest;
+        private final Timer unauthorized;
+        private final Timer delay;
+        private final Timer processing;
+        private final ConcurrentMap<Integer, Timer> otherOutcomes = new ConcurrentHashMap<>();
+        private final IntervalStats interval = new IntervalStats();
+
+        private RequestMetrics(String endpoint, boolean delayed) {
+            this.endpoint = endpoint;
+            this.success = requestTimer(200);
+            this.badRequest = requestTimer(400);
+            this.unauthorized = requestTimer(401);
+            Tags tags = Tags.of("endpoint", endpoint);
+            this.delay = delayed ? timer(DELAY_TIMER, "Заданная задержка ответа", tags) : null;
+            this.processing = delayed ? timer(PROCESSING_TIMER, "Время формирования ответа без задержки", tags) : null;
+        }
+
+        public String getEndpoint() {
+            return endpoint;
+        }
+
+        public IntervalStats getInterval() {
+            return interval;
+        }
+
+        // Выполняет запрос без задержки и записывает его время с исходом по коду ответа
+        public <T extends ResponseEntity<?>> T record(Supplier<T> action) {
+            long start = System.nanoTime();
+            int status = 500;
+            try {
+                T response = action.get();
+                status = response.getStatusCode().value();
+                return response;
+            } finally {
+                record(status, System.nanoTime() - start);
+            }
+        }
+
+        // Полное время запроса с исходом по коду ответа
+        public void record(int status, long totalNanos) {
+            outcomeTimer(status).record(totalNanos, TimeUnit.NANOSECONDS);
+            interval.record(status, totalNanos);
+        }
+
+        // Полное время запроса, заданная задержка и время формирования ответа
+        public void record(int status, long totalNanos, long delayNanos, long processingNanos) {
+            record(status, totalNanos);
+            if (delay == null) {
+                return;
+            }
+            delay.record(delayNanos, TimeUnit.NANOSECONDS);
+            processing.record(processingNanos, TimeUnit.NANOSECONDS);
+        }
+
+        private Timer outcomeTimer(int status) {
+            return switch (status) {
+                case 200 -> success;
+                case 400 -> badRequest;
+                case 401 -> unauthorized;
+                default -> status < 400 ? success : otherOutcomes.computeIfAbsent(status, this::requestTimer);
+            };
+        }
+
+        private Timer requestTimer(int status) {
+            return timer(REQUEST_TIMER, "Время выполнения запроса",
+                    Tags.of("endpoint", endpoint, "outcome", outcome(status)));
+        }
+    }
+
+    /**
+     * Метрики пакетного вызова: время и размер пакета, исходы отдельных элементов.
+     */
+    public final class BatchMetrics {
+        private final String endpoint;
+        private final Timer batch;
+        private final DistributionSummary size;
+        private final Counter success;
+        private final ConcurrentMap<Integer, Counter> otherOutcomes = new ConcurrentHashMap<>();
+
+        private BatchMetrics(String endpoint) {
+            this.endpoint = endpoint;
+            this.batch = timer(BATCH_TIMER, "Время обработки пакета", Tags.of("endpoint", endpoint));
+            this.size = DistributionSummary.builder("bankapp.auth.batch.size")
+                    .description("Число элементов в пакете").tags("endpoint", endpoint).register(registry);
+            this.success = itemCounter(200);
+        }
+
+        public void recordBatch(int items, long nanos) {
+            batch.record(nanos, TimeUnit.NANOSECONDS);
+            size.record(items);
+        }
+
+        public void recordItem(int status) {
+            (status < 400 ? success : otherOutcomes.computeIfAbsent(status, this::itemCounter)).increment();
+        }
+
+        private Counter itemCounter(int status) {
+            return Counter.builder("bankapp.auth.batch.items")
+                    .description("Элементы пакетов по исходу")
+                    .tags("endpoint", endpoint, "outcome", outcome(status))
+                    .register(registry);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,135 @@
+package com.bankapp.service;
+
+import com.bankapp.model.BatchItem;
+import com.bankapp.model.BatchItemResult;
+import com.bankapp.model.Client;
+import com.bankapp.model.Credentials;
+import com.bankapp.repository.DuplicateUsernameException;
+import com.bankapp.util.SessionManager;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Пакетный вход и регистрация для подготовки виртуальных пользователей перед тестом.
+ * <p>
+ * Элементы обрабатываются параллельно через {@link ClientService} частями по {@value #CHUNK_SIZE}: часть считается
+ * в отдельном {@link ForkJoinPool}, затем её результаты передаются получателю в порядке элементов запроса,
+ * поэтому ответ можно писать потоком, не дожидаясь конца пакета. Задержки и ёмкость одиночных вызовов
+ * к пакетам не применяются.
+ */
+@Service
+public class BatchAuthService {
+
+    public static final int CHUNK_SIZE = 1024;
+
+    private final ClientService clientService;
+    private final SessionManager sessionManager;
+    private final AuthMetricsService authMetrics;
+    private final int maxItems;
+    private final ForkJoinPool pool;
+
+    public BatchAuthService(ClientService clientService, SessionManager sessionManager, AuthMetricsService authMetrics,
+                            @Value("${bankapp.batch.max-items:100000}") int maxItems,
+                            @Value("${bankapp.batch.parallelism:0}") int parallelism) {
+        this.clientService = clientService;
+        this.sessionManager = sessionManager;
+        this.authMetrics = authMetrics;
+        this.maxItems = maxItems;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    // Получатель результатов; вызывается в порядке элементов, после каждой части — flush
+    public interface ResultWriter {
+        void write(BatchItemResult result) throws IOException;
+
+        void flush() throws IOException;
+    }
+
+    public void validate(List<BatchItem> items) {
+        if (items == null || items.isEmpty() || items.size() > maxItems) {
+            throw new IllegalArgumentException("Пакет должен содержать от 1 до " + maxItems + " элементов");
+        }
+    }
+
+    public void login(List<BatchItem> items, ResultWriter out) throws IOException {
+        process(items, out, authMetrics.getLoginBatchMetrics(), this::loginOne);
+    }
+
+    public void register(List<BatchItem> items, ResultWriter out) throws IOException {
+        process(items, out, authMetrics.getRegisterBatchMetrics(), this::registerOne);
+    }
+
+    private BatchItemResult loginOne(int index, BatchItem item) {
+        if (item == null || item.username() == null || item.password() == null) {
+            return new BatchItemResult(index, item == null ? null : item.username(), 400, null, null,
+                    "Не указаны username и password");
+        }
+        Optional<Credentials> credentials = clientService.login(item.username(), item.password());
+        if (credentials.isEmpty()) {
+            return new BatchItemResult(index, item.username(), 401, null, null, "Неверный логин или пароль");
+        }
+        try {
+            String token = sessionManager.login(credentials.get());
+            return new BatchItemResult(index, item.username(), 200, token, credentials.get().clientId(), null);
+        } catch (IllegalArgumentException e) {
+            // Логин не помещается в подписанный токен — ошибка только этого элемента
+            return new BatchItemResult(index, item.username(), 400, null, null, e.getMessage());
+        }
+    }
+
+    private BatchItemResult registerOne(int index, BatchItem item) {
+        if (item == null || item.fullName() == null || item.phone() == null
+                || item.username() == null || item.password() == null) {
+            return new BatchItemResult(index, item == null ? null : item.username(), 400, null, null,
+                    "Не указаны fullName, phone, username и password");
+        }
+        try {
+            Client client = clientService.register(item.fullName(), item.phone(), item.username(), item.password());
+            return new BatchItemResult(index, item.username(), 200, null, client.getId(), null);
+        } catch (DuplicateUsernameException e) {
+            return new BatchItemResult(index, item.username(), 409, null, null, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return new BatchItemResult(index, item.username(), 400, null, null, e.getMessage());
+        }
+    }
+
+    private void process(List<BatchItem> items, ResultWriter out, AuthMetricsService.BatchMetrics metrics,
+                         BiFunction<Integer, BatchItem, BatchItemResult> handler) throws IOException {
+        long start = System.nanoTime();
+        try {
+            for (int from = 0; from < items.size(); from += CHUNK_SIZE) {
+                int chunkStart = from;
+                int chunkEnd = Math.min(items.size(), from + CHUNK_SIZE);
+                List<BatchItemResult> results = pool.submit(() -> IntStream.range(chunkStart, chunkEnd).parallel()
+                        .mapToObj(i -> handler.apply(i, items.get(i)))
+                        .toList()).get();
+                for (BatchItemResult result : results) {
+                    metrics.recordItem(result.status());
+                    out.write(result);
+                }
+                out.flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Обработка пакета прервана", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Ошибка при обработке пакета", e.getCause());
+        } finally {
+            metrics.recordBatch(items.size(), System.nanoTime() - start);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+}
@@ -1,21 +1,38 @@
 package com.bankapp.service;
 
 import com.bankapp.model.Client;
+import com.bankapp.model.Credentials;
 import com.bankapp.repository.ClientRepository;
+import com.bankapp.repository.DuplicateUsernameException;
+import com.bankapp.util.PasswordHasher;
+import com.bankapp.util.SessionManager;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Optional;
 
 @Service
 public class ClientService {
+    private final PasswordHasher passwordHasher;
 
+    public ClientService(PasswordHasher passwordHasher) {
+        this.passwordHasher = passwordHasher;
+    }
+
+    /**
+     * @throws IllegalArgumentException   если логин длиннее {@value SessionManager#MAX_USERNAME_BYTES} байт в UTF-8
+     * @throws DuplicateUsernameException если логин уже занят
+     */
     public Client register(String fullName, String phone, String username, String password) {
-        Client client = new Client(fullName, phone, username, password);
+        if (username.getBytes(StandardCharsets.UTF_8).length > SessionManager.MAX_USERNAME_BYTES) {
+            throw new IllegalArgumentException("Логин длиннее " + SessionManager.MAX_USERNAME_BYTES + " байт в UTF-8");
+        }
+        Client client = new Client(fullName, phone, username, passwordHasher.encode(password));
         return ClientRepository.save(client);
     }
 
-    public Optional<Client> login(String username, String password) {
-        return ClientRepository.findByUsername(username)
-                .filter(client -> client.getPassword().equals(password));
+    public Optional<Credentials> login(String username, String password) {
+        return ClientRepository.findCredentials(username)
+                .filter(credentials -> passwordHasher.verify(username, credentials.password(), password));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,212 @@
+package com.bankapp.service;
+
+import com.bankapp.model.Account;
+import com.bankapp.model.Client;
+import com.bankapp.repository.ClientRepository;
+import com.bankapp.repository.DuplicateUsernameException;
+import com.bankapp.util.PasswordHasher;
+import com.github.javafaker.Faker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+/**
+ * Массовое заполнение {@link ClientRepository} тестовыми клиентами.
+ * <p>
+ * Клиент с номером {@code i} получает логин {@code user<i>} и пароль {@code pass<i>}, поэтому нагрузочный скрипт
+ * вычисляет учётные данные без обращения к заглушке. Остальные поля (имя, телефон, счета) генерирует JavaFaker
+ * из генератора, засеянного парой (seed, i): при одинаковом seed данные совпадают независимо от числа потоков.
+ * <p>
+ * Пароль сохраняется через {@link PasswordHasher}: при хранении хешей каждый клиент стоит одного хеширования,
+ * и заполнение замедляется пропорционально {@code bankapp.password.iterations}.
+ * <p>
+ * Клиенты создаются параллельно в отдельном {@link ForkJoinPool} и пишутся прямо в репозиторий, минуя HTTP.
+ * Расход памяти отчёт показывает как объём, выделенный потоками этого пула: счётчик выделений JVM ведёт по потокам,
+ * поэтому сборка мусора для замера не нужна и не добавляет пауз в идущий тест.
+ * При старте заполнение включается свойством {@code bankapp.seed.count} и завершается до открытия HTTP-порта,
+ * так что первый запрос уже видит всех клиентов.
+ */
+@Service
+public class DataSeeder implements SmartInitializingSingleton {
+    private static final Logger log = LoggerFactory.getLogger(DataSeeder.class);
+
+    public static final String USERNAME_PREFIX = "user";
+    public static final String PASSWORD_PREFIX = "pass";
+
+    // Счётчик выделений по потокам; null — JVM его не поддерживает или он выключен
+    private static final com.sun.management.ThreadMXBean ALLOCATIONS = allocationCounter();
+
+    private final int startupCount;
+    private final long startupSeed;
+    private final int accountsPerClient;
+    private final int parallelism;
+    private final Locale locale;
+    private final PasswordHasher passwordHasher;
+
+    // Faker на поток: создание Faker дорогое, а перезасев его генератора — нет
+    private final ThreadLocal<SeededFaker> fakers;
+
+    public DataSeeder(@Value("${bankapp.seed.count:0}") int startupCount,
+                      @Value("${bankapp.seed.seed:42}") long startupSeed,
+                      @Value("${bankapp.seed.accounts-per-client:1}") int accountsPerClient,
+                      @Value("${bankapp.seed.parallelism:0}") int parallelism,
+                      @Value("${bankapp.seed.locale:en}") String locale,
+                      PasswordHasher passwordHasher) {
+        this.startupCount = startupCount;
+        this.startupSeed = startupSeed;
+        this.accountsPerClient = accountsPerClient;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.locale = Locale.forLanguageTag(locale);
+        this.passwordHasher = passwordHasher;
+        this.fakers = ThreadLocal.withInitial(() -> new SeededFaker(this.locale));
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (startupCount > 0) {
+            SeedReport report = seed(1, startupCount, startupSeed, accountsPerClient);
+            log.info("Тестовые данные созданы: {}", report);
+        }
+    }
+
+    /**
+     * Создаёт клиентов с номерами {@code from .. from + count - 1}.
+     * Клиенты, чей логин уже занят, пропускаются.
+     */
+    public SeedReport seed(int from, int count, long seed, int accountsPerClient) {
+        if (count < 0 || accountsPerClient < 0) {
+            throw new IllegalArgumentException("Количество клиентов и счетов должно быть неотрицательным");
+        }
+        long start = System.nanoTime();
+        LongAdder inserted = new LongAdder();
+        LongAdder skipped = new LongAdder();
+        LongAdder allocated = new LongAdder();
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism, p -> new SeedWorker(p, allocated), null, false);
+        try {
+            pool.submit(() -> IntStream.range(from, from + count).parallel().forEach(i -> {
+                try {
+                    ClientRepository.save(generate(i, seed, accountsPerClient));
+                    inserted.increment();
+                } catch (DuplicateUsernameException e) {
+                    skipped.increment();
+                }
+            })).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Заполнение прервано", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Ошибка при заполнении", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        long allocatedBytes = allocatedBytes(pool, allocated);
+        return new SeedReport(count, inserted.sum(), skipped.sum(), elapsedMillis,
+                allocatedBytes < 0 ? -1 : toMb(allocatedBytes), ClientRepository.count());
+    }
+
+    // Потоки пула сдают свои выделения при завершении, поэтому сумма полна только после остановки пула
+    private static long allocatedBytes(ForkJoinPool pool, LongAdder allocated) {
+        if (ALLOCATIONS == null) {
+            return -1;
+        }
+        try {
+            return pool.awaitTermination(10, TimeUnit.SECONDS) ? allocated.sum() : -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+            return threads;
+        }
+        return null;
+    }
+
+    private static long toMb(long bytes) {
+        return bytes / (1024 * 1024);
+    }
+
+    // Клиент с номером i; при одинаковых seed и i результат одинаков
+    Client generate(int i, long seed, int accountsPerClient) {
+        SeededFaker seeded = fakers.get();
+        Random random = seeded.random;
+        random.setSeed(seed * 1_000_003L + i);
+
+        Client client = new Client(uuid(random), seeded.faker.name().fullName(),
+                seeded.faker.phoneNumber().cellPhone(), USERNAME_PREFIX + i, passwordHasher.encode(PASSWORD_PREFIX + i));
+        for (int a = 0; a < accountsPerClient; a++) {
+            client.getAccounts().add(new Account(uuid(random), hex(random.nextLong(), 12), hex(random.nextLong(), 16),
+                    random.nextInt(10_000_000)));
+        }
+        return client;
+    }
+
+    // UUID версии 4 из детерминированного генератора
+    private static String uuid(Random random) {
+        long msb = (random.nextLong() & 0xffffffffffff0fffL) | 0x0000000000004000L;
+        long lsb = (random.nextLong() & 0x3fffffffffffffffL) | 0x8000000000000000L;
+        return new UUID(msb, lsb).toString();
+    }
+
+    // Номер из digits шестнадцатеричных цифр — в том же формате, что у счёта по умолчанию
+    private static String hex(long value, int digits) {
+        char[] out = new char[digits];
+        for (int k = digits - 1; k >= 0; k--) {
+            out[k] = Character.forDigit((int) (value & 0xf), 16);
+            value >>>= 4;
+        }
+        return new String(out);
+    }
+
+    // allocatedMb — выделено потоками заполнения, включая уже собранный мусор; -1, если JVM не считает выделения.
+    // Сколько из этого осталось в куче, меряет RepositoryFootprint
+    public record SeedReport(int requested, long inserted, long skipped, long elapsedMillis, long allocatedMb,
+                             int totalClients) {
+    }
+
+    // Поток заполнения: перед завершением добавляет к счётчику пула всё, что выделил за свою жизнь
+    private static final class SeedWorker extends ForkJoinWorkerThread {
+        private final LongAdder allocated;
+
+        SeedWorker(ForkJoinPool pool, LongAdder allocated) {
+            super(pool);
+            this.allocated = allocated;
+        }
+
+        @Override
+        protected void onTermination(Throwable exception) {
+            if (ALLOCATIONS != null) {
+                allocated.add(ALLOCATIONS.getCurrentThreadAllocatedBytes());
+            }
+            super.onTermination(exception);
+        }
+    }
+
+    private static final class SeededFaker {
+        private final Random random = new Random();
+        private final Faker faker;
+
+        SeededFaker(Locale locale) {
+            this.faker = new Faker(locale, random);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.bankapp.service;
+
+import com.bankapp.model.LiveSnapshot;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Статистика эндпоинта за интервал для живого потока: гистограмма времени ответа и число ошибок с прошлого снятия.
+ * <p>
+ * Запись не блокируется и не ждёт снятия: {@link Recorder} пишет в одну из двух гистограмм и при снятии
+ * переключает их. Ошибкой считается ответ с кодом от 400, как исход не {@code success} у таймера запроса.
+ * Ошибка и время ответа снимаются не одновременно, поэтому на границе интервалов ошибка может попасть в соседний.
+ */
+public final class IntervalStats {
+    // До 10 минут в микросекундах с точностью 1%
+    private static final long MAX_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final Recorder latency = new Recorder(1, MAX_MICROS, 2);
+    private final LongAdder errors = new LongAdder();
+    // Только поток снятия
+    private Histogram recycled;
+
+    void record(int status, long nanos) {
+        latency.recordValue(Math.min(Math.max(nanos / 1000, 0), MAX_MICROS));
+        if (status >= 400) {
+            errors.increment();
+        }
+    }
+
+    /**
+     * Снимает статистику с прошлого вызова и начинает новый интервал. Вызывается из одного потока.
+     *
+     * @param seconds длительность интервала для расчёта запросов в секунду
+     */
+    public LiveSnapshot.Endpoint sample(double seconds) {
+        Histogram interval = latency.getIntervalHistogram(recycled);
+        recycled = interval;
+        long count = interval.getTotalCount();
+        double rps = seconds > 0 ? Math.round(count * 10 / seconds) / 10.0 : 0;
+        return new LiveSnapshot.Endpoint(count, rps, errors.sumThenReset(),
+                millis(interval.getValueAtPercentile(50)), millis(interval.getValueAtPercentile(99)),
+                millis(count == 0 ? 0 : interval.getMaxValue()));
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
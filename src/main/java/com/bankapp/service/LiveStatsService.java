@@ -0,0 +1,174 @@
+package com.bankapp.service;
+
+import com.bankapp.model.LiveSnapshot;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Живой поток статистики запросов для наблюдения за тестом без ожидания опроса Prometheus.
+ * <p>
+ * Раз в {@code bankapp.live.interval} поток снятия забирает интервальные гистограммы всех эндпоинтов
+ * ({@link IntervalStats}), кодирует снимок в JSON один раз и раздаёт его подписчикам Server-Sent Events.
+ * Запросы пишут только в гистограммы и подписчиков не касаются.
+ * <p>
+ * У подписчика одно место под неотправленный снимок. Отправка идёт в отдельном потоке; пока медленный подписчик
+ * не принял прошлый снимок, новый заменяет неотправленный, и подписчик получает только последний.
+ * Заменённые снимки считаются в {@code bankapp.live.skipped}. Число подписчиков ограничено
+ * {@code bankapp.live.max-subscribers}.
+ */
+@Service
+public class LiveStatsService {
+    private static final Logger log = LoggerFactory.getLogger(LiveStatsService.class);
+
+    private final List<AuthMetricsService.RequestMetrics> endpoints;
+    private final ObjectMapper objectMapper;
+    private final int maxSubscribers;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final LongAdder skipped = new LongAdder();
+    private final ScheduledExecutorService sampler;
+    private final ExecutorService senders;
+    private volatile String latest;
+    // Только поток снятия
+    private long lastSampleNanos = System.nanoTime();
+
+    public LiveStatsService(@Value("${bankapp.live.interval:1s}") Duration interval,
+                            @Value("${bankapp.live.max-subscribers:100}") int maxSubscribers,
+                            AuthMetricsService authMetrics, ObjectMapper objectMapper) {
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("bankapp.live.interval должен быть положительным");
+        }
+        this.endpoints = authMetrics.getRequestMetrics();
+        this.objectMapper = objectMapper;
+        this.maxSubscribers = maxSubscribers;
+        this.sampler = Executors.newSingleThreadScheduledExecutor(r -> daemon(r, "live-stats"));
+        this.senders = Executors.newCachedThreadPool(r -> daemon(r, "live-stats-sender"));
+        sampler.scheduleAtFixedRate(this::sample, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+
+        authMetrics.registerGauge("bankapp.live.subscribers", "Подписчики живого потока статистики",
+                subscribers, Set::size);
+        authMetrics.registerCounter("bankapp.live.skipped", "Снимки, заменённые следующими у медленных подписчиков",
+                skipped, LongAdder::sum);
+    }
+
+    /**
+     * Новый подписчик потока. Сразу получает последний снимок, если он есть.
+     *
+     * @return null, если подписчиков уже {@code bankapp.live.max-subscribers}
+     */
+    public SseEmitter subscribe() {
+        if (subscribers.size() >= maxSubscribers) {
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(0L);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        String snapshot = latest;
+        if (snapshot != null) {
+            subscriber.offer(snapshot);
+        }
+        return emitter;
+    }
+
+    private void sample() {
+        try {
+            long now = System.nanoTime();
+            double seconds = (now - lastSampleNanos) / 1e9;
+            lastSampleNanos = now;
+            Map<String, LiveSnapshot.Endpoint> stats = new LinkedHashMap<>();
+            for (AuthMetricsService.RequestMetrics metrics : endpoints) {
+                stats.put(metrics.getEndpoint(), metrics.getInterval().sample(seconds));
+            }
+            String snapshot = objectMapper.writeValueAsString(
+                    new LiveSnapshot(Instant.now(), Math.round(seconds * 1000), stats));
+            latest = snapshot;
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(snapshot);
+            }
+        } catch (JsonProcessingException | RuntimeException e) {
+            // Исключение остановило бы расписание
+            log.warn("Не удалось снять статистику живого потока", e);
+        }
+    }
+
+    private static Thread daemon(Runnable task, String name) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sampler.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        senders.shutdown();
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final AtomicReference<String> pending = new AtomicReference<>();
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        // Кладёт снимок на место неотправленного и запускает отправку, если она не идёт
+        void offer(String snapshot) {
+            if (pending.getAndSet(snapshot) != null) {
+                skipped.increment();
+            }
+            if (sending.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                String snapshot = pending.getAndSet(null);
+                if (snapshot == null) {
+                    sending.set(false);
+                    // Снимок мог прийти между проверкой и сбросом флага
+                    if (pending.get() == null || !sending.compareAndSet(false, true)) {
+                        return;
+                    }
+                    continue;
+                }
+                try {
+                    emitter.send(SseEmitter.event().name("snapshot").data(snapshot));
+                } catch (IOException | IllegalStateException e) {
+                    // Клиент отключился или поток уже завершён
+                    subscribers.remove(this);
+                    emitter.completeWithError(e);
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.bankapp.service;
+
+import com.bankapp.repository.ClientRepository;
+import com.bankapp.repository.ClientSnapshot;
+import com.bankapp.repository.DuplicateUsernameException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Снимки клиентов на диск и загрузка при старте.
+ * <p>
+ * Файл задаётся свойством {@code bankapp.snapshot.path}; если оно пустое, снимки отключены.
+ * При старте снимок загружается до заполнения тестовыми данными и до открытия HTTP-порта.
+ * Снимок пишется по запросу {@code POST /admin/snapshot} или раз в {@code bankapp.snapshot.interval}
+ * фоновым потоком: обход клиентов не блокирует ни вход, ни регистрацию.
+ * Сессии в снимок не входят — после перезапуска пользователи входят заново.
+ */
+@Service
+@DependsOn("clientStoreConfig")
+public class SnapshotService {
+    private static final Logger log = LoggerFactory.getLogger(SnapshotService.class);
+
+    private final Path path;
+    private final boolean loadOnStartup;
+    private final Duration interval;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private ScheduledExecutorService scheduler;
+
+    public SnapshotService(@Value("${bankapp.snapshot.path:}") String path,
+                           @Value("${bankapp.snapshot.load-on-startup:true}") boolean loadOnStartup,
+                           @Value("${bankapp.snapshot.interval:0s}") Duration interval) {
+        this.path = path.isBlank() ? null : Path.of(path);
+        this.loadOnStartup = loadOnStartup;
+        this.interval = interval;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (path == null) {
+            return;
+        }
+        if (loadOnStartup && Files.exists(path)) {
+            ClientSnapshot.Stats stats = load();
+            log.info("Загружен снимок {}: клиентов {}, {} байт за {} мс", path, stats.clients(), stats.bytes(), stats.elapsedMillis());
+        }
+        if (!interval.isZero()) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "client-snapshot");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::writePeriodically, interval.toMillis(), interval.toMillis(),
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public boolean isEnabled() {
+        return path != null;
+    }
+
+    // Записывает снимок; одновременно пишется не больше одного снимка
+    public ClientSnapshot.Stats write() {
+        requireEnabled();
+        writeLock.lock();
+        try {
+            return ClientSnapshot.write(path, ClientRepository::forEach);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось записать снимок " + path, e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Загружает клиентов из снимка; уже зарегистрированные логины пропускаются
+    public ClientSnapshot.Stats load() throws IOException {
+        requireEnabled();
+        return ClientSnapshot.read(path, client -> {
+            try {
+                ClientRepository.save(client);
+            } catch (DuplicateUsernameException ignored) {
+                // Клиент уже есть в репозитории
+            }
+        });
+    }
+
+    private void writePeriodically() {
+        try {
+            ClientSnapshot.Stats stats = write();
+            log.debug("Записан снимок {}: клиентов {}, {} байт за {} мс", path, stats.clients(), stats.bytes(), stats.elapsedMillis());
+        } catch (RuntimeException e) {
+            log.warn("Ошибка периодического снимка", e);
+        }
+    }
+
+    private void requireEnabled() {
+        if (path == null) {
+            throw new IllegalStateException("Снимки отключены: не задано свойство bankapp.snapshot.path");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+}
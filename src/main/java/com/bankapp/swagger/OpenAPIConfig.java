@@ -3,6 +3,9 @@ package com.bankapp.swagger;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -46,4 +49,26 @@ public class OpenAPIConfig {
 
         return new OpenAPI().info(info).servers(List.of(devServer, prodServer));
     }
+
+    /**
+     * Профиль fast-start: бины springdoc и модель OpenAPI создаются при первом обращении к /v3/api-docs
+     * или Swagger UI, а не при старте заглушки.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "bankapp.openapi.lazy", havingValue = "true")
+    public static BeanFactoryPostProcessor lazyOpenApi() {
+        return beanFactory -> {
+            for (String name : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition definition = beanFactory.getBeanDefinition(name);
+                if (name.equals("myOpenAPI") || isSpringdoc(name) || isSpringdoc(definition.getBeanClassName())
+                        || isSpringdoc(definition.getFactoryBeanName())) {
+                    definition.setLazyInit(true);
+                }
+            }
+        };
+    }
+
+    private static boolean isSpringdoc(String name) {
+        return name != null && name.startsWith("org.springdoc.");
+    }
 }
\ No newline at end of file
@@ -0,0 +1,185 @@
+package com.bankapp.util;
+
+import com.bankapp.latency.CapacityExceededException;
+import com.bankapp.latency.CapacityModel;
+import com.bankapp.latency.InjectedFaultException;
+import com.bankapp.service.AuthMetricsService.RequestMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Движок задержек ответа.
+ * <p>
+ * В режиме {@code async} (по умолчанию) запрос не занимает поток Tomcat на время задержки:
+ * контроллер получает {@link CompletableFuture}, который завершается общим планировщиком
+ * по истечении задержки. Несколько потоков планировщика обслуживают десятки тысяч
+ * одновременно ожидающих запросов. Потоки планировщика только отсчитывают задержку: ответ формируется в отдельном
+ * пуле {@code bankapp.delay.compute-threads}, поэтому затратная по процессору работа (например, хеширование пароля при
+ * входе) не задерживает срабатывание таймеров других запросов.
+ * <p>
+ * Режим {@code blocking} сохраняет прежнее поведение с {@code Thread.sleep} в потоке запроса.
+ * <p>
+ * Режим {@code virtual} (Java 21, профиль {@code virtual}) усыпляет поток запроса так же,
+ * как {@code blocking}, но запросы обрабатываются виртуальными потоками
+ * ({@code spring.threads.virtual.enabled=true}), и сон не занимает поток ОС.
+ * <p>
+ * С моделью ёмкости ({@link CapacityModel}) задержка становится временем обслуживания: запрос ждёт свободного
+ * эмулируемого обработчика в очереди, а при заполненной очереди завершается {@link CapacityExceededException}.
+ * В режимах {@code blocking} и {@code virtual} поток запроса ждёт окончания обслуживания.
+ * <p>
+ * Во всех режимах в метрики пишутся полное время запроса с задержкой, заданная задержка и время
+ * формирования ответа после неё.
+ */
+@Component
+public class DelayEngine {
+
+    public enum Mode { ASYNC, BLOCKING, VIRTUAL }
+
+    private final Mode mode;
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final ExecutorService compute;
+
+    public DelayEngine(@Value("${bankapp.delay.mode:async}") String mode,
+                       @Value("${bankapp.delay.scheduler-threads:2}") int schedulerThreads,
+                       @Value("${bankapp.delay.compute-threads:0}") int computeThreads) {
+        this.mode = Mode.valueOf(mode.trim().toUpperCase());
+        if (this.mode == Mode.VIRTUAL && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("Режим virtual требует Java 21+, текущая версия: " + Runtime.version());
+        }
+        this.scheduler = new ScheduledThreadPoolExecutor(schedulerThreads, new DelayThreadFactory("auth-delay-"));
+        this.compute = Executors.newFixedThreadPool(
+                computeThreads > 0 ? computeThreads : Runtime.getRuntime().availableProcessors(),
+                new DelayThreadFactory("auth-compute-"));
+        // Отменённые задачи сразу удаляются из очереди, чтобы не держать память
+        this.scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Выполняет действие по истечении задержки и записывает время запроса в метрики эндпоинта.
+     *
+     * @param delayMillis задержка в миллисекундах, 0 — без задержки
+     * @param metrics     метрики эндпоинта, исход запроса определяется по коду ответа
+     * @param action      формирование ответа, выполняется после задержки
+     */
+    public <T extends ResponseEntity<?>> CompletableFuture<T> delay(long delayMillis, RequestMetrics metrics,
+                                                                    Supplier<T> action) {
+        return delay(delayMillis, CapacityModel.UNLIMITED, metrics, action);
+    }
+
+    /**
+     * То же, но с ограниченной ёмкостью: задержка — время обслуживания одним из обработчиков {@code capacity}.
+     */
+    public <T extends ResponseEntity<?>> CompletableFuture<T> delay(long delayMillis, CapacityModel capacity,
+                                                                    RequestMetrics metrics, Supplier<T> action) {
+        long start = System.nanoTime();
+        if (!capacity.isUnlimited()) {
+            return serve(start, delayMillis, capacity, metrics, action);
+        }
+
+        if (delayMillis <= 0 || mode != Mode.ASYNC) {
+            if (delayMillis > 0) {
+                try { Thread.sleep(delayMillis); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+            }
+            return complete(new CompletableFuture<>(), start, TimeUnit.MILLISECONDS.toNanos(Math.max(delayMillis, 0)),
+                    metrics, action);
+        }
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        scheduler.schedule(() -> compute.execute(() ->
+                        complete(result, start, TimeUnit.MILLISECONDS.toNanos(delayMillis), metrics, action)),
+                delayMillis, TimeUnit.MILLISECONDS);
+        return result;
+    }
+
+    // Очередь к эмулируемым обработчикам; задержкой в метриках считается ожидание вместе с обслуживанием
+    private <T extends ResponseEntity<?>> CompletableFuture<T> serve(long start, long serviceMillis, CapacityModel capacity,
+                                                                     RequestMetrics metrics, Supplier<T> action) {
+        if (!capacity.tryAdmit()) {
+            metrics.record(capacity.getRejectStatus(), System.nanoTime() - start);
+            return CompletableFuture.failedFuture(new CapacityExceededException(capacity.getRejectStatus()));
+        }
+        CompletableFuture<Void> served = new CompletableFuture<>();
+        capacity.enqueue(() -> scheduler.schedule(() -> {
+            capacity.release();
+            served.complete(null);
+        }, Math.max(serviceMillis, 0), TimeUnit.MILLISECONDS));
+
+        if (mode == Mode.ASYNC) {
+            CompletableFuture<T> result = new CompletableFuture<>();
+            served.thenRunAsync(() -> complete(result, start, System.nanoTime() - start, metrics, action), compute);
+            return result;
+        }
+        try {
+            served.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+        return complete(new CompletableFuture<>(), start, System.nanoTime() - start, metrics, action);
+    }
+
+    private static <T extends ResponseEntity<?>> CompletableFuture<T> complete(CompletableFuture<T> result, long start,
+                                                                               long delayNanos, RequestMetrics metrics,
+                                                                               Supplier<T> action) {
+        long processingStart = System.nanoTime();
+        int status = 500;
+        try {
+            T response = action.get();
+            status = response.getStatusCode().value();
+            result.complete(response);
+        } catch (InjectedFaultException e) {
+            status = e.getStatus();
+            result.completeExceptionally(e);
+        } catch (Throwable e) {
+            result.completeExceptionally(e);
+        } finally {
+            long end = System.nanoTime();
+            metrics.record(status, end - start, delayNanos, end - processingStart);
+        }
+        return result;
+    }
+
+    // Количество запросов, ожидающих окончания задержки
+    public int getPendingCount() {
+        return scheduler.getQueue().size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        compute.shutdownNow();
+    }
+
+    private static final class DelayThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        DelayThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
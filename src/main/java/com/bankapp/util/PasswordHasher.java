@@ -0,0 +1,217 @@
+package com.bankapp.util;
+
+import com.bankapp.service.AuthMetricsService;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Хранение и проверка паролей клиентов.
+ * <p>
+ * В режиме {@code plain} ({@code bankapp.password.storage}) пароль хранится как есть и сравнивается строкой.
+ * В режиме {@code pbkdf2} хранится {@code $pbkdf2-sha256$<итерации>$<соль>$<хеш>} (соль и хеш — base64),
+ * а число итераций {@code bankapp.password.iterations} задаёт стоимость входа на процессоре, как у настоящего
+ * хранилища учётных данных. Итерации берутся из сохранённой строки, поэтому смена настройки действует на новые
+ * пароли, а пароли, сохранённые как есть (например, из старого снимка), по-прежнему проверяются сравнением.
+ * <p>
+ * Кеш проверенных входов ({@code bankapp.password.cache-size}, 0 — выключен) позволяет повторному входу того же
+ * пользователя обойтись без PBKDF2: хранится логин, сохранённый хеш и SHA-256 пароля с солью процесса, сам пароль
+ * не хранится. Кеш ограничен: записи вытесняются по кругу в порядке добавления, без блокировок.
+ * <p>
+ * Время хеширования пишется в таймер {@code bankapp.password.hash{operation}}, обращения к кешу — в счётчик
+ * {@code bankapp.password.cache{result}}: так загрузка процессора видна отдельно от заданной задержки.
+ */
+@Component
+public class PasswordHasher {
+    private static final String PREFIX = "$pbkdf2-sha256$";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+
+    private static final Base64.Encoder ENCODER = Base64.getEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getDecoder();
+
+    public enum Storage { PLAIN, PBKDF2 }
+
+    private final Storage storage;
+    private final int iterations;
+    private final SecureRandom random = new SecureRandom();
+    private final ThreadLocal<SecretKeyFactory> factories = ThreadLocal.withInitial(PasswordHasher::factory);
+    private final ThreadLocal<MessageDigest> digests = ThreadLocal.withInitial(PasswordHasher::sha256);
+    private final byte[] fingerprintSalt = new byte[SALT_BYTES];
+
+    // Проверенные входы по логину и круг вытеснения; null — кеш выключен
+    private final ConcurrentMap<String, Verified> verified;
+    private final AtomicReferenceArray<Verified> evictionRing;
+    private final AtomicLong evictionCursor = new AtomicLong();
+
+    private final Timer encodeTimer;
+    private final Timer verifyTimer;
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+
+    private record Verified(String username, String stored, byte[] fingerprint) {
+    }
+
+    public PasswordHasher(@Value("${bankapp.password.storage:plain}") String storage,
+                          @Value("${bankapp.password.iterations:10000}") int iterations,
+                          @Value("${bankapp.password.cache-size:0}") int cacheSize,
+                          AuthMetricsService authMetrics) {
+        this.storage = Storage.valueOf(storage.trim().toUpperCase());
+        if (this.storage == Storage.PBKDF2 && iterations <= 0) {
+            throw new IllegalArgumentException("bankapp.password.iterations должен быть больше 0");
+        }
+        if (cacheSize < 0) {
+            throw new IllegalArgumentException("bankapp.password.cache-size должен быть неотрицательным");
+        }
+        this.iterations = iterations;
+        random.nextBytes(fingerprintSalt);
+        boolean cached = this.storage == Storage.PBKDF2 && cacheSize > 0;
+        this.verified = cached ? new ConcurrentHashMap<>(cacheSize * 2) : null;
+        this.evictionRing = cached ? new AtomicReferenceArray<>(cacheSize) : null;
+
+        this.encodeTimer = authMetrics.registerTimer("bankapp.password.hash", "Время хеширования пароля",
+                Tags.of("operation", "encode"));
+        this.verifyTimer = authMetrics.registerTimer("bankapp.password.hash", "Время хеширования пароля",
+                Tags.of("operation", "verify"));
+        if (cached) {
+            authMetrics.registerCounter("bankapp.password.cache", "Проверки пароля по кешу проверенных входов",
+                    Tags.of("result", "hit"), cacheHits, LongAdder::sum);
+            authMetrics.registerCounter("bankapp.password.cache", "Проверки пароля по кешу проверенных входов",
+                    Tags.of("result", "miss"), cacheMisses, LongAdder::sum);
+            authMetrics.registerGauge("bankapp.password.cache.size", "Записи в кеше проверенных входов",
+                    verified, ConcurrentMap::size);
+        }
+    }
+
+    public Storage getStorage() {
+        return storage;
+    }
+
+    // Строка для хранения пароля: сам пароль или хеш со случайной солью
+    public String encode(String password) {
+        if (storage == Storage.PLAIN) {
+            return password;
+        }
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        long start = System.nanoTime();
+        byte[] hash = pbkdf2(password, salt, iterations);
+        encodeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return PREFIX + iterations + '$' + ENCODER.encodeToString(salt) + '$' + ENCODER.encodeToString(hash);
+    }
+
+    /**
+     * Проверяет пароль по сохранённой строке.
+     *
+     * @param username логин — ключ кеша проверенных входов
+     */
+    public boolean verify(String username, String stored, String password) {
+        if (stored == null || password == null) {
+            return false;
+        }
+        if (!stored.startsWith(PREFIX)) {
+            return stored.equals(password);
+        }
+        if (verified == null) {
+            return verifyHash(stored, password);
+        }
+        byte[] fingerprint = fingerprint(password);
+        Verified entry = verified.get(username);
+        if (entry != null && entry.stored().equals(stored) && MessageDigest.isEqual(entry.fingerprint(), fingerprint)) {
+            cacheHits.increment();
+            return true;
+        }
+        cacheMisses.increment();
+        if (!verifyHash(stored, password)) {
+            return false;
+        }
+        remember(new Verified(username, stored, fingerprint));
+        return true;
+    }
+
+    private boolean verifyHash(String stored, String password) {
+        // $pbkdf2-sha256$<итерации>$<соль>$<хеш>
+        int saltStart = stored.indexOf('$', PREFIX.length()) + 1;
+        int hashStart = saltStart == 0 ? 0 : stored.indexOf('$', saltStart) + 1;
+        if (hashStart == 0) {
+            return false;
+        }
+        byte[] expected;
+        byte[] salt;
+        int rounds;
+        try {
+            rounds = Integer.parseInt(stored, PREFIX.length(), saltStart - 1, 10);
+            salt = DECODER.decode(stored.substring(saltStart, hashStart - 1));
+            expected = DECODER.decode(stored.substring(hashStart));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        if (rounds <= 0) {
+            return false;
+        }
+        long start = System.nanoTime();
+        byte[] actual = pbkdf2(password, salt, rounds);
+        verifyTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return MessageDigest.isEqual(expected, actual);
+    }
+
+    // Добавляет запись и вытесняет ту, что занимала её место в круге, если она ещё в кеше
+    private void remember(Verified entry) {
+        verified.put(entry.username(), entry);
+        int slot = (int) (evictionCursor.getAndIncrement() % evictionRing.length());
+        Verified evicted = evictionRing.getAndSet(slot, entry);
+        if (evicted != null && evicted != entry) {
+            verified.remove(evicted.username(), evicted);
+        }
+    }
+
+    private byte[] pbkdf2(String password, byte[] salt, int rounds) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, rounds, HASH_BITS);
+        try {
+            return factories.get().generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " недоступен", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    private byte[] fingerprint(String password) {
+        MessageDigest digest = digests.get();
+        digest.update(fingerprintSalt);
+        return digest.digest(password.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static SecretKeyFactory factory() {
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(ALGORITHM + " недоступен", e);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
+        }
+    }
+}
@@ -1,25 +1,228 @@
 package com.bankapp.util;
 
-import com.bankapp.model.Client;
+import com.bankapp.model.Credentials;
+import com.bankapp.service.AuthMetricsService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Сессии авторизованных пользователей.
+ * <p>
+ * {@link #login(Credentials)} выдаёт токен сессии, остальные операции находят сессию по токену.
+ * Сессия истекает после простоя {@code bankapp.session.idle-ttl} или через
+ * {@code bankapp.session.absolute-ttl} после входа. Запрос проверяет срок только своей сессии,
+ * а истёкшие сессии удаляет фоновый поток раз в {@code bankapp.session.sweep-interval}.
+ * <p>
+ * В режиме {@code signed} ({@code bankapp.session.mode}) сессии не хранятся: токен несёт id клиента, логин и срок
+ * и подписан HMAC-SHA256 ключом {@code bankapp.session.signing-key} ({@link SignedTokens}). Любой экземпляр заглушки
+ * с тем же ключом проверяет токен сам, память на живого пользователя не расходуется. Действует только
+ * {@code absolute-ttl}: время простоя без хранилища не отследить. {@link #logout(String)} заносит токен в
+ * ограниченный {@code bankapp.session.revocation-capacity} список отозванных до истечения его срока — список свой
+ * у каждого экземпляра.
+ */
 @Component
 public class SessionManager {
-    private Client loggedInClient;
+    public static final String TOKEN_HEADER = "X-Session-Token";
+
+    // Предел длины логина в UTF-8: длина логина в подписанном токене занимает один байт
+    public static final int MAX_USERNAME_BYTES = 0xFF;
+
+    // Время последнего обращения обновляется не чаще раза в секунду, чтобы не писать в память на каждый запрос
+    private static final long TOUCH_RESOLUTION_MILLIS = 1000;
+
+    private static final int TOKEN_BYTES = 16;
+    private static final SecureRandom TOKEN_RANDOM = new SecureRandom();
+
+    private static final Logger log = LoggerFactory.getLogger(SessionManager.class);
+
+    public enum Mode { STORE, SIGNED }
+
+    private final ConcurrentMap<String, Session> sessions = new ConcurrentHashMap<>();
+    private final Mode mode;
+    private final SignedTokens signedTokens;
+    // Отозванные подписанные токены и их срок в секундах эпохи
+    private final ConcurrentMap<String, Long> revoked = new ConcurrentHashMap<>();
+    private final int revocationCapacity;
+    private final LongAdder revocationOverflow = new LongAdder();
+    private final long idleTtlMillis;
+    private final long absoluteTtlMillis;
+    private final ScheduledExecutorService sweeper;
+
+    public SessionManager(@Value("${bankapp.session.idle-ttl:30m}") Duration idleTtl,
+                          @Value("${bankapp.session.absolute-ttl:12h}") Duration absoluteTtl,
+                          @Value("${bankapp.session.sweep-interval:30s}") Duration sweepInterval,
+                          @Value("${bankapp.session.mode:store}") String mode,
+                          @Value("${bankapp.session.signing-key:}") String signingKey,
+                          @Value("${bankapp.session.revocation-capacity:100000}") int revocationCapacity,
+                          AuthMetricsService authMetrics) {
+        this.idleTtlMillis = idleTtl.toMillis();
+        this.absoluteTtlMillis = absoluteTtl.toMillis();
+        this.mode = Mode.valueOf(mode.trim().toUpperCase());
+        this.signedTokens = this.mode == Mode.SIGNED ? new SignedTokens(signingKey(signingKey)) : null;
+        this.revocationCapacity = revocationCapacity;
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "session-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = sweepInterval.toMillis();
+        sweeper.scheduleWithFixedDelay(this::removeExpired, interval, interval, TimeUnit.MILLISECONDS);
+        authMetrics.registerGauge("bankapp.auth.sessions.active", "Количество активных сессий",
+                sessions, ConcurrentMap::size);
+        if (this.mode == Mode.SIGNED) {
+            authMetrics.registerGauge("bankapp.auth.sessions.revoked", "Отозванные подписанные токены до истечения срока",
+                    revoked, ConcurrentMap::size);
+            authMetrics.registerCounter("bankapp.auth.sessions.revocation.overflow",
+                    "Выходы, не отозвавшие токен из-за заполненного списка отозванных", revocationOverflow, LongAdder::sum);
+        }
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    // Открывает сессию и возвращает её токен
+    public String login(Credentials credentials) {
+        if (mode == Mode.SIGNED) {
+            long expiresAt = (System.currentTimeMillis() + absoluteTtlMillis) / 1000;
+            return signedTokens.issue(credentials.clientId(), credentials.username(), expiresAt);
+        }
+        String token = newToken();
+        sessions.put(token, new Session(credentials.clientId(), credentials.username(), System.currentTimeMillis()));
+        return token;
+    }
+
+    public Optional<Session> find(String token) {
+        if (token == null) {
+            return Optional.empty();
+        }
+        if (mode == Mode.SIGNED) {
+            Session session = signedTokens.read(token, System.currentTimeMillis() / 1000);
+            return session == null || isRevoked(token) ? Optional.empty() : Optional.of(session);
+        }
+        Session session = sessions.get(token);
+        if (session == null) {
+            return Optional.empty();
+        }
+        long now = System.currentTimeMillis();
+        if (session.isExpired(now, idleTtlMillis, absoluteTtlMillis)) {
+            sessions.remove(token, session);
+            return Optional.empty();
+        }
+        session.touch(now);
+        return Optional.of(session);
+    }
+
+    public boolean isLoggedIn(String token) {
+        if (mode == Mode.SIGNED) {
+            // Без выделения памяти: подпись, срок и отзыв
+            long expiresAt = signedTokens.verify(token);
+            return expiresAt > System.currentTimeMillis() / 1000 && !isRevoked(token);
+        }
+        return find(token).isPresent();
+    }
+
+    // Закрывает сессию; возвращает false, если сессии с таким токеном не было
+    public boolean logout(String token) {
+        if (mode == Mode.SIGNED) {
+            return revoke(token);
+        }
+        return token != null && sessions.remove(token) != null;
+    }
+
+    public int getActiveCount() {
+        return sessions.size();
+    }
+
+    private void removeExpired() {
+        long now = System.currentTimeMillis();
+        sessions.values().removeIf(session -> session.isExpired(now, idleTtlMillis, absoluteTtlMillis));
+        revoked.values().removeIf(expiresAt -> expiresAt <= now / 1000);
+    }
+
+    private boolean isRevoked(String token) {
+        return !revoked.isEmpty() && revoked.containsKey(token);
+    }
+
+    // Отзывает действующий токен; при заполненном списке токен остаётся действительным до своего срока
+    private boolean revoke(String token) {
+        if (!isLoggedIn(token)) {
+            return false;
+        }
+        if (revoked.size() >= revocationCapacity) {
+            revocationOverflow.increment();
+            return false;
+        }
+        return revoked.putIfAbsent(token, signedTokens.verify(token)) == null;
+    }
 
-    public void login(Client client) {
-        this.loggedInClient = client;
+    // Ключ подписи: общий для всех экземпляров или случайный, если не задан
+    private static byte[] signingKey(String key) {
+        if (!key.isBlank()) {
+            return key.getBytes(StandardCharsets.UTF_8);
+        }
+        byte[] random = new byte[32];
+        new SecureRandom().nextBytes(random);
+        log.warn("Не задан bankapp.session.signing-key: токены подписаны случайным ключом и действительны только в этом процессе");
+        return random;
     }
 
-    public Client getLoggedInClient() {
-        return loggedInClient;
+    // 128 случайных бит: SecureRandom, потому что по выходу ThreadLocalRandom можно предсказать следующие токены
+    private static String newToken() {
+        byte[] token = new byte[TOKEN_BYTES];
+        TOKEN_RANDOM.nextBytes(token);
+        return HexFormat.of().formatHex(token);
     }
 
-    public void logout() {
-        this.loggedInClient = null;
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
     }
 
-    public boolean isLoggedIn() {
-        return loggedInClient != null;
+    public static final class Session {
+        private final String clientId;
+        private final String username;
+        private final long createdAt;
+        private volatile long lastAccess;
+
+        Session(String clientId, String username, long createdAt) {
+            this.clientId = clientId;
+            this.username = username;
+            this.createdAt = createdAt;
+            this.lastAccess = createdAt;
+        }
+
+        public String getClientId() {
+            return clientId;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        boolean isExpired(long now, long idleTtlMillis, long absoluteTtlMillis) {
+            return now - lastAccess > idleTtlMillis || now - createdAt > absoluteTtlMillis;
+        }
+
+        void touch(long now) {
+            if (now - lastAccess >= TOUCH_RESOLUTION_MILLIS) {
+                lastAccess = now;
+            }
+        }
     }
-}
\ No newline at end of file
+}
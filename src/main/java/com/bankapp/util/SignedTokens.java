@@ -0,0 +1,205 @@
+package com.bankapp.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Подписанные токены сессий: вся сессия в самом токене, проверка не обращается к хранилищу.
+ * <p>
+ * Токен — base64url без выравнивания от {@code версия (1) | срок, секунды эпохи (u32) | id клиента (16) |
+ * случайное число (4) | длина логина (u8) | логин UTF-8 | HMAC-SHA256 (первые 16 байт)}. Случайное число делает
+ * токены повторных входов разными, иначе вход сразу после выхода получил бы уже отозванный токен.
+ * <p>
+ * Ключ дополняется до блока и складывается с ipad/opad один раз при создании. Проверка разбирает токен в буфер
+ * потока и считает HMAC тем же {@link MessageDigest} потока с записью в этот буфер, поэтому ничего не выделяет.
+ */
+final class SignedTokens {
+    private static final int VERSION = 1;
+    private static final int BLOCK_BYTES = 64;
+    private static final int MAC_BYTES = 16;
+    private static final int USERNAME_LENGTH_OFFSET = 1 + 4 + 16 + 4;
+    private static final int HEADER_BYTES = USERNAME_LENGTH_OFFSET + 1;
+    private static final int MAX_USERNAME_BYTES = SessionManager.MAX_USERNAME_BYTES;
+    private static final int MAX_TOKEN_BYTES = HEADER_BYTES + MAX_USERNAME_BYTES + MAC_BYTES;
+    private static final int MAX_TOKEN_CHARS = (MAX_TOKEN_BYTES * 4 + 2) / 3;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final byte[] DECODE = new byte[128];
+
+    static {
+        Arrays.fill(DECODE, (byte) -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alphabet.length(); i++) {
+            DECODE[alphabet.charAt(i)] = (byte) i;
+        }
+    }
+
+    private final byte[] innerKey = new byte[BLOCK_BYTES];
+    private final byte[] outerKey = new byte[BLOCK_BYTES];
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    // Буферы потока: разобранный токен и промежуточный хеш
+    private static final class Scratch {
+        final MessageDigest sha256 = sha256();
+        final byte[] token = new byte[MAX_TOKEN_BYTES];
+        final byte[] digest = new byte[32];
+    }
+
+    SignedTokens(byte[] key) {
+        byte[] block = key.length > BLOCK_BYTES ? sha256().digest(key) : key;
+        for (int i = 0; i < BLOCK_BYTES; i++) {
+            byte b = i < block.length ? block[i] : 0;
+            innerKey[i] = (byte) (b ^ 0x36);
+            outerKey[i] = (byte) (b ^ 0x5c);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException если логин длиннее {@value #MAX_USERNAME_BYTES} байт в UTF-8
+     */
+    String issue(String clientId, String username, long expiresAtSeconds) {
+        byte[] name = username.getBytes(StandardCharsets.UTF_8);
+        if (name.length > MAX_USERNAME_BYTES) {
+            throw new IllegalArgumentException("Логин длиннее " + MAX_USERNAME_BYTES + " байт не помещается в подписанный токен");
+        }
+        UUID id = UUID.fromString(clientId);
+        int payload = HEADER_BYTES + name.length;
+        byte[] token = new byte[payload + MAC_BYTES];
+        token[0] = VERSION;
+        putInt(token, 1, (int) expiresAtSeconds);
+        putLong(token, 5, id.getMostSignificantBits());
+        putLong(token, 13, id.getLeastSignificantBits());
+        putInt(token, 21, ThreadLocalRandom.current().nextInt());
+        token[USERNAME_LENGTH_OFFSET] = (byte) name.length;
+        System.arraycopy(name, 0, token, HEADER_BYTES, name.length);
+        Scratch buffers = scratch.get();
+        mac(buffers, token, payload);
+        System.arraycopy(buffers.digest, 0, token, payload, MAC_BYTES);
+        return ENCODER.encodeToString(token);
+    }
+
+    /**
+     * Проверяет подпись без выделения памяти.
+     *
+     * @return срок действия в секундах эпохи или -1, если токен не выдан с этим ключом
+     */
+    long verify(String token) {
+        return verify(token, scratch.get());
+    }
+
+    // Сессия из токена с верной подписью, не истёкшего к nowSeconds, или null
+    SessionManager.Session read(String token, long nowSeconds) {
+        Scratch buffers = scratch.get();
+        if (verify(token, buffers) <= nowSeconds) {
+            return null;
+        }
+        byte[] bytes = buffers.token;
+        String clientId = new UUID(getLong(bytes, 5), getLong(bytes, 13)).toString();
+        String username = new String(bytes, HEADER_BYTES, bytes[USERNAME_LENGTH_OFFSET] & 0xFF, StandardCharsets.UTF_8);
+        return new SessionManager.Session(clientId, username, 0);
+    }
+
+    private long verify(String token, Scratch buffers) {
+        if (token == null || token.length() > MAX_TOKEN_CHARS) {
+            return -1;
+        }
+        byte[] bytes = buffers.token;
+        int length = decode(token, bytes);
+        if (length < HEADER_BYTES + MAC_BYTES || bytes[0] != VERSION) {
+            return -1;
+        }
+        int payload = length - MAC_BYTES;
+        if (payload != HEADER_BYTES + (bytes[USERNAME_LENGTH_OFFSET] & 0xFF)) {
+            return -1;
+        }
+        mac(buffers, bytes, payload);
+        int difference = 0;
+        for (int i = 0; i < MAC_BYTES; i++) {
+            difference |= buffers.digest[i] ^ bytes[payload + i];
+        }
+        return difference == 0 ? getInt(bytes, 1) & 0xFFFFFFFFL : -1;
+    }
+
+    // HMAC-SHA256 первых length байт data в buffers.digest
+    private void mac(Scratch buffers, byte[] data, int length) {
+        MessageDigest sha256 = buffers.sha256;
+        try {
+            sha256.update(innerKey);
+            sha256.update(data, 0, length);
+            sha256.digest(buffers.digest, 0, buffers.digest.length);
+            sha256.update(outerKey);
+            sha256.update(buffers.digest);
+            sha256.digest(buffers.digest, 0, buffers.digest.length);
+        } catch (DigestException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // base64url без выравнивания в out; -1 — недопустимый символ или длина
+    private static int decode(String token, byte[] out) {
+        int chars = token.length();
+        if (chars % 4 == 1) {
+            return -1;
+        }
+        int length = 0;
+        int bits = 0;
+        int pending = 0;
+        for (int i = 0; i < chars; i++) {
+            char c = token.charAt(i);
+            int value = c < 128 ? DECODE[c] : -1;
+            if (value < 0) {
+                return -1;
+            }
+            bits = bits << 6 | value;
+            pending += 6;
+            if (pending >= 8) {
+                pending -= 8;
+                out[length++] = (byte) (bits >>> pending);
+            }
+        }
+        // Лишние младшие биты должны быть нулями, иначе один токен имел бы несколько записей
+        return (bits & ((1 << pending) - 1)) == 0 ? length : -1;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void putInt(byte[] bytes, int offset, int value) {
+        for (int i = 0; i < 4; i++) {
+            bytes[offset + i] = (byte) (value >>> (24 - 8 * i));
+        }
+    }
+
+    private static void putLong(byte[] bytes, int offset, long value) {
+        for (int i = 0; i < 8; i++) {
+            bytes[offset + i] = (byte) (value >>> (56 - 8 * i));
+        }
+    }
+
+    private static int getInt(byte[] bytes, int offset) {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            value = value << 8 | bytes[offset + i] & 0xFF;
+        }
+        return value;
+    }
+
+    private static long getLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = value << 8 | bytes[offset + i] & 0xFF;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,194 @@
+package com.bankapp.controller;
+
+import com.bankapp.latency.CapacityExceededException;
+import com.bankapp.latency.CapacitySettings;
+import com.bankapp.latency.Fault;
+import com.bankapp.latency.InjectedFaultException;
+import com.bankapp.latency.LatencyProfile;
+import com.bankapp.latency.LatencyRule;
+import com.bankapp.latency.LatencyRules;
+import com.bankapp.latency.LatencySettings;
+import com.bankapp.latency.LatencyTable;
+import com.bankapp.model.AuthEndpoint;
+import com.bankapp.model.Credentials;
+import com.bankapp.repository.DuplicateUsernameException;
+import com.bankapp.service.AuthMetricsService;
+import com.bankapp.service.ClientService;
+import com.bankapp.util.ReactiveDelayEngine;
+import com.bankapp.util.SessionManager;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Запросы /auth/* на WebFlux (профиль {@code reactive}) с тем же контрактом, что у {@link AuthController}:
+ * параметры, коды ответов, тела и заголовок токена сессии. Задержки, доли ошибок и ёмкость берутся из тех же
+ * настроек, включая правила задержки, и применяются {@link ReactiveDelayEngine} без удержания потоков.
+ * <p>
+ * Список клиентов, выгрузка потоком и пакетные вызовы есть только в сервлетном варианте.
+ */
+@RestController
+@RequestMapping("/auth")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveAuthController {
+    private final ClientService clientService;
+    private final SessionManager sessionManager;
+    private final AuthMetricsService authMetrics;
+    private final ReactiveDelayEngine delayEngine;
+    private final LatencySettings latency;
+    private final CapacitySettings capacity;
+    private final LatencyRules rules;
+
+    public ReactiveAuthController(ClientService clientService, SessionManager sessionManager,
+                                  AuthMetricsService authMetrics, ReactiveDelayEngine delayEngine,
+                                  LatencySettings latency, CapacitySettings capacity, LatencyRules rules) {
+        this.clientService = clientService;
+        this.sessionManager = sessionManager;
+        this.authMetrics = authMetrics;
+        this.delayEngine = delayEngine;
+        this.latency = latency;
+        this.capacity = capacity;
+        this.rules = rules;
+    }
+
+    // 1️⃣ Установить timeout для запросов login, logout, loggedUser, isLogged, register
+    @PostMapping("/setTimeout")
+    public ResponseEntity<Map<String, Object>> setTimeout(@RequestParam String type, @RequestParam Integer timeout) {
+        return authMetrics.getSetTimeoutMetrics().record(() -> {
+            if (timeout < 0) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Таймаут должен быть положительным числом"));
+            }
+
+            Optional<AuthEndpoint> endpoint = AuthEndpoint.fromKey(type);
+            if (endpoint.isEmpty()) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Неверный тип запроса."));
+            }
+
+            latency.set(endpoint.get(), new LatencyProfile.Fixed(timeout * 1000L));
+
+            LatencyTable table = latency.current();
+            Map<String, Integer> timeouts = new LinkedHashMap<>();
+            for (AuthEndpoint current : AuthEndpoint.values()) {
+                timeouts.put(current.getKey(), (int) Math.round(table.get(current).meanMillis() / 1000));
+            }
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("message", "Установлен таймаут для запроса " + type + " на " + timeout + " сек");
+            response.put("timeouts", timeouts);
+
+            return ResponseEntity.ok(response);
+        });
+    }
+
+    // 2️⃣ Зарегестрировать нового пользователя
+    @PostMapping("/register")
+    public Mono<ResponseEntity<?>> register(@RequestParam String fullName, @RequestParam String phone,
+                                            @RequestParam String username, @RequestParam String password,
+                                            @RequestHeader HttpHeaders headers) {
+        return delayed(AuthEndpoint.REGISTER, authMetrics.getRegisterMetrics(), username, headers, () -> {
+            try {
+                return ResponseEntity.ok(clientService.register(fullName, phone, username, password));
+            } catch (DuplicateUsernameException e) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            }
+        });
+    }
+
+    // 3️⃣ Выполнить авторизацию в системе
+    @PostMapping("/login")
+    public Mono<ResponseEntity<byte[]>> login(@RequestParam String username, @RequestParam String password,
+                                              @RequestHeader HttpHeaders headers) {
+        return delayed(AuthEndpoint.LOGIN, authMetrics.getLoginMetrics(), username, headers, () -> {
+            Optional<Credentials> credentials = clientService.login(username, password);
+            if (credentials.isPresent()) {
+                try {
+                    return AuthResponses.loginOk(username, sessionManager.login(credentials.get()));
+                } catch (IllegalArgumentException e) {
+                    return AuthResponses.loginRejected(e.getMessage());
+                }
+            } else {
+                return AuthResponses.LOGIN_FAILED;
+            }
+        });
+    }
+
+    // 4️⃣ Получить логин текущего авторизованного пользователя
+    @GetMapping("/loggedUser")
+    public Mono<ResponseEntity<byte[]>> getLoggedUser(
+            @RequestHeader(value = SessionManager.TOKEN_HEADER, required = false) String token,
+            @RequestHeader HttpHeaders headers) {
+        return delayed(AuthEndpoint.LOGGED_USER, authMetrics.getLoggedUserMetrics(), sessionUser(AuthEndpoint.LOGGED_USER, token), headers, () -> {
+            Optional<SessionManager.Session> session = sessionManager.find(token);
+            if (session.isPresent()) {
+                return AuthResponses.loggedUser(session.get().getUsername());
+            } else {
+                return AuthResponses.NOT_LOGGED_IN;
+            }
+        });
+    }
+
+    // 5️⃣ Получить статус авторизации пользователя
+    @GetMapping("/isLogged")
+    public Mono<ResponseEntity<byte[]>> isLogged(
+            @RequestHeader(value = SessionManager.TOKEN_HEADER, required = false) String token,
+            @RequestHeader HttpHeaders headers) {
+        return delayed(AuthEndpoint.IS_LOGGED, authMetrics.getIsLoggedMetrics(), sessionUser(AuthEndpoint.IS_LOGGED, token), headers, () ->
+                AuthResponses.isLogged(sessionManager.isLoggedIn(token)));
+    }
+
+    // 6️⃣ Выполнить выход из системы
+    @PostMapping("/logout")
+    public Mono<ResponseEntity<byte[]>> logout(
+            @RequestHeader(value = SessionManager.TOKEN_HEADER, required = false) String token,
+            @RequestHeader HttpHeaders headers) {
+        return delayed(AuthEndpoint.LOGOUT, authMetrics.getLogoutMetrics(), sessionUser(AuthEndpoint.LOGOUT, token), headers, () -> {
+            sessionManager.logout(token);
+            return AuthResponses.LOGOUT_OK;
+        });
+    }
+
+    // Задержка, доля ошибок и ёмкость, заданные для запроса или подошедшим правилом
+    private <T extends ResponseEntity<?>> Mono<T> delayed(AuthEndpoint endpoint,
+                                                          AuthMetricsService.RequestMetrics metrics,
+                                                          String username, HttpHeaders headers, Supplier<T> action) {
+        LatencyTable table = latency.current();
+        LatencyRule rule = rules.match(endpoint, username, headers::getFirst);
+        Fault fault = rule != null && rule.getFault() != null ? rule.getFault() : table.fault(endpoint);
+        LatencyProfile profile = rule != null && rule.getLatency() != null ? rule.getLatency() : table.get(endpoint);
+        Supplier<T> respond = fault.trigger() ? () -> { throw new InjectedFaultException(fault.status()); } : action;
+        return delayEngine.delay(profile.sampleMillis(), capacity.get(endpoint), metrics, respond);
+    }
+
+    // Логин по токену, только если он нужен правилам задержки эндпоинта
+    private String sessionUser(AuthEndpoint endpoint, String token) {
+        return rules.needsUsername(endpoint)
+                ? sessionManager.find(token).map(SessionManager.Session::getUsername).orElse(null)
+                : null;
+    }
+
+    @ExceptionHandler(CapacityExceededException.class)
+    public ResponseEntity<Map<String, Object>> handleCapacityExceeded(CapacityExceededException e) {
+        return ResponseEntity.status(e.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("error", e.getMessage()));
+    }
+
+    @ExceptionHandler(InjectedFaultException.class)
+    public ResponseEntity<Map<String, Object>> handleInjectedFault(InjectedFaultException e) {
+        return ResponseEntity.status(e.getStatus()).body(Map.of("error", e.getMessage()));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, Object>> handleIllegalArgument(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+}
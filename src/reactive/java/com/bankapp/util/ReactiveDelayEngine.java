@@ -0,0 +1,88 @@
+package com.bankapp.util;
+
+import com.bankapp.latency.CapacityExceededException;
+import com.bankapp.latency.CapacityModel;
+import com.bankapp.latency.InjectedFaultException;
+import com.bankapp.service.AuthMetricsService.RequestMetrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Движок задержек реактивного варианта (профиль {@code reactive}).
+ * <p>
+ * Задержка — {@link Mono#delay}, ожидание обработчика модели ёмкости — подписка на его освобождение:
+ * ни то, ни другое не занимает поток. Ответ формируется на потоке таймера Reactor по истечении задержки.
+ * <p>
+ * Метрики и исходы те же, что у {@link DelayEngine}: полное время запроса, заданная задержка
+ * и время формирования ответа после неё.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveDelayEngine {
+
+    /**
+     * Выполняет действие по истечении задержки и записывает время запроса в метрики эндпоинта.
+     *
+     * @param delayMillis задержка в миллисекундах, 0 — без задержки; с моделью ёмкости — время обслуживания
+     * @param capacity    модель ёмкости, {@link CapacityModel#UNLIMITED} — без очереди
+     * @param metrics     метрики эндпоинта, исход запроса определяется по коду ответа
+     * @param action      формирование ответа, выполняется после задержки
+     */
+    public <T extends ResponseEntity<?>> Mono<T> delay(long delayMillis, CapacityModel capacity, RequestMetrics metrics,
+                                                       Supplier<T> action) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            if (capacity.isUnlimited()) {
+                if (delayMillis <= 0) {
+                    return complete(start, 0, metrics, action);
+                }
+                long delayNanos = TimeUnit.MILLISECONDS.toNanos(delayMillis);
+                return Mono.delay(Duration.ofMillis(delayMillis))
+                        .then(Mono.defer(() -> complete(start, delayNanos, metrics, action)));
+            }
+            return serve(start, delayMillis, capacity, metrics, action);
+        });
+    }
+
+    // Очередь к эмулируемым обработчикам; задержкой в метриках считается ожидание вместе с обслуживанием
+    private static <T extends ResponseEntity<?>> Mono<T> serve(long start, long serviceMillis, CapacityModel capacity,
+                                                               RequestMetrics metrics, Supplier<T> action) {
+        if (!capacity.tryAdmit()) {
+            metrics.record(capacity.getRejectStatus(), System.nanoTime() - start);
+            return Mono.error(new CapacityExceededException(capacity.getRejectStatus()));
+        }
+        // Обработчик освобождается по окончании обслуживания, даже если клиент уже отключился
+        Sinks.Empty<Void> served = Sinks.empty();
+        capacity.enqueue(() -> Mono.delay(Duration.ofMillis(Math.max(serviceMillis, 0))).subscribe(tick -> {
+            capacity.release();
+            served.tryEmitEmpty();
+        }));
+        return served.asMono().then(Mono.defer(() -> complete(start, System.nanoTime() - start, metrics, action)));
+    }
+
+    private static <T extends ResponseEntity<?>> Mono<T> complete(long start, long delayNanos, RequestMetrics metrics,
+                                                                  Supplier<T> action) {
+        long processingStart = System.nanoTime();
+        int status = 500;
+        try {
+            T response = action.get();
+            status = response.getStatusCode().value();
+            return Mono.just(response);
+        } catch (InjectedFaultException e) {
+            status = e.getStatus();
+            return Mono.error(e);
+        } catch (RuntimeException e) {
+            return Mono.error(e);
+        } finally {
+            long end = System.nanoTime();
+            metrics.record(status, end - start, delayNanos, end - processingStart);
+        }
+    }
+}